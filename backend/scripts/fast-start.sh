@@ -0,0 +1,71 @@
+#!/usr/bin/env bash
+# Fast launch: Spring AOT (bean definitions generated at build time) plus a JDK class-data-sharing
+# archive recorded by a training run (classes loaded and verified once, then mapped at startup).
+#
+#   scripts/fast-start.sh build     # ./mvnw -Paot package, extract the jar, train the CDS archive
+#   scripts/fast-start.sh run ...   # launch with AOT + CDS; extra args go to the application
+#   scripts/fast-start.sh measure   # time to "Started" for the plain jar and for AOT + CDS
+#
+# The archive is only valid for the JDK and the exact jars it was trained with: rebuild it with
+# every release (the JVM warns and falls back to normal loading if it does not match). Set
+# MVN=mvn to build with a local Maven instead of the wrapper.
+#
+# The training run starts the application against a throwaway in-memory H2 and exits once the
+# context is refreshed, so it needs no database. Production runs with app.seed.enabled=false
+# and spring.jpa.hibernate.ddl-auto=none: Flyway is the schema's source of truth, so there is
+# no need to introspect it on every start. Startup time is exported as
+# application_started_time_seconds / application_ready_time_seconds on /actuator/prometheus.
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+APP_DIR=target/fast-start
+JAR_NAME=taskmanager-0.0.1-SNAPSHOT.jar
+ARCHIVE=$APP_DIR/app.jsa
+# no -Xlog:cds=off: the archive-mismatch warning above is how a stale archive shows up
+FAST_OPTS=(-XX:SharedArchiveFile="$ARCHIVE" -Dspring.aot.enabled=true)
+TRAIN_ARGS=(--spring.datasource.url="jdbc:h2:mem:train;DB_CLOSE_DELAY=-1;MODE=PostgreSQL" --server.port=0)
+
+build() {
+  ${MVN:-sh ./mvnw} -B -q -Paot -DskipTests package
+  rm -rf "$APP_DIR"
+  java -Djarmode=tools -jar "target/$JAR_NAME" extract --destination "$APP_DIR"
+  java -XX:ArchiveClassesAtExit="$ARCHIVE" -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    -jar "$APP_DIR/$JAR_NAME" "${TRAIN_ARGS[@]}" > "$APP_DIR/training.log" 2>&1
+  echo "CDS archive: $ARCHIVE ($(du -h "$ARCHIVE" | cut -f1))"
+}
+
+run() {
+  [[ -f "$ARCHIVE" ]] || { echo "No CDS archive; run '$0 build' first" >&2; exit 1; }
+  exec java "${FAST_OPTS[@]}" -jar "$APP_DIR/$JAR_NAME" "$@"
+}
+
+# Starts the application, waits for Spring Boot's "Started ... in N seconds" line, stops it.
+started_in() {
+  local log
+  log=$(mktemp)
+  java "$@" "${TRAIN_ARGS[@]}" > "$log" 2>&1 &
+  local pid=$!
+  for _ in $(seq 1 600); do
+    if grep -q "Started TaskmanagerApplication" "$log"; then break; fi
+    if ! kill -0 "$pid" 2>/dev/null; then cat "$log" >&2; return 1; fi
+    sleep 0.1
+  done
+  kill "$pid" && wait "$pid" 2>/dev/null || true
+  sed -n 's/.*Started TaskmanagerApplication in \([0-9.]*\) seconds (process running for \([0-9.]*\)).*/\1s context, \2s process/p' "$log"
+  rm -f "$log"
+}
+
+measure() {
+  [[ -f "$ARCHIVE" ]] || { echo "No CDS archive; run '$0 build' first" >&2; exit 1; }
+  for i in 1 2 3; do
+    echo "plain jar     #$i: $(started_in -jar "target/$JAR_NAME")"
+    echo "AOT + CDS     #$i: $(started_in "${FAST_OPTS[@]}" -jar "$APP_DIR/$JAR_NAME")"
+  done
+}
+
+case "${1:-}" in
+  build) build ;;
+  run) shift; run "$@" ;;
+  measure) measure ;;
+  *) echo "usage: $0 build | run [args...] | measure" >&2; exit 2 ;;
+esac
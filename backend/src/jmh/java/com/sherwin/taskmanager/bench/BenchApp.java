@@ -0,0 +1,28 @@
+package com.sherwin.taskmanager.bench;
+
+import com.sherwin.taskmanager.TaskmanagerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/** Boots the full application (web server on a random port) against a private in-memory H2 database. */
+final class BenchApp {
+
+  private BenchApp() { }
+
+  static ConfigurableApplicationContext start(Map<String, Object> overrides) {
+    Map<String, Object> props = new HashMap<>();
+    props.put("spring.datasource.url", "jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+    props.put("server.port", "0");
+    props.put("spring.jpa.show-sql", "false");
+    props.put("spring.main.banner-mode", "off");
+    props.put("logging.level.root", "WARN");
+    props.putAll(overrides);
+    // as command-line args, so they win over application.properties
+    String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+    return new SpringApplicationBuilder(TaskmanagerApplication.class).run(args);
+  }
+}
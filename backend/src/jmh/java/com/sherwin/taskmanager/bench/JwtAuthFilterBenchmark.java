@@ -0,0 +1,48 @@
+package com.sherwin.taskmanager.bench;
+
+import com.sherwin.taskmanager.security.JwtAuthFilter;
+import com.sherwin.taskmanager.security.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.util.concurrent.TimeUnit;
+
+/** One authenticated request through {@link JwtAuthFilter}, from header to populated security context. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthFilterBenchmark {
+
+  @Param({"0", "10000"})
+  public long cacheSize;
+
+  private JwtAuthFilter filter;
+  private String header;
+  private final FilterChain chain = (req, res) -> { };
+
+  @Setup
+  public void setup() {
+    JwtService jwt = new JwtService("bench-secret-0123456789abcdef-0123456789", cacheSize, new SimpleMeterRegistry());
+    // role claim present: the user store must never be hit
+    filter = new JwtAuthFilter(jwt, username -> { throw new UsernameNotFoundException(username); });
+    header = "Bearer " + jwt.generate("admin@example.com", "ADMIN");
+  }
+
+  @Benchmark
+  public Object authenticate() throws Exception {
+    MockHttpServletRequest req = new MockHttpServletRequest("GET", "/api/tasks");
+    req.addHeader("Authorization", header);
+    filter.doFilter(req, new MockHttpServletResponse(), chain);
+    Object auth = SecurityContextHolder.getContext().getAuthentication();
+    SecurityContextHolder.clearContext();
+    return auth;
+  }
+}
@@ -0,0 +1,41 @@
+package com.sherwin.taskmanager.bench;
+
+import com.sherwin.taskmanager.security.JwtService;
+import com.sherwin.taskmanager.security.VerifiedToken;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/** Token issue and verification; {@code cacheSize=0} measures the full HMAC + decode path. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+  @Param({"0", "10000"})
+  public long cacheSize;
+
+  private JwtService jwt;
+  private String token;
+
+  @Setup
+  public void setup() {
+    jwt = new JwtService("bench-secret-0123456789abcdef-0123456789", cacheSize, new SimpleMeterRegistry());
+    token = jwt.generate("admin@example.com", "ADMIN");
+  }
+
+  @Benchmark
+  public String generate() {
+    return jwt.generate("admin@example.com", "ADMIN");
+  }
+
+  @Benchmark
+  public Optional<VerifiedToken> verify() {
+    return jwt.verify(token);
+  }
+}
@@ -0,0 +1,95 @@
+package com.sherwin.taskmanager.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sherwin.taskmanager.task.BoardColumns;
+import com.sherwin.taskmanager.task.TaskView;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializing the {@code GET /api/tasks} body with the same Jackson setup Spring MVC uses, per
+ * wire format and shape: {@code flat} is the list of TaskViews, {@code grouped} the
+ * {@link BoardColumns} of {@code GET /api/tasks/columns}. {@code gzip} adds what Tomcat's
+ * compression costs. Payload sizes are printed once per combination during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ListSerializationBenchmark {
+
+  private static final String[] STATUSES = {"Todo", "In Progress", "Done"};
+
+  @Param({"100", "5000"})
+  public int boardSize;
+
+  @Param({"json", "smile", "cbor"})
+  public String format;
+
+  @Param({"flat", "grouped"})
+  public String shape;
+
+  private ObjectMapper mapper;
+  private Object body;
+
+  @Setup
+  public void setup() throws IOException {
+    mapper = switch (format) {
+      case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+      case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+      default -> Jackson2ObjectMapperBuilder.json().build();
+    };
+    List<TaskView> board = new ArrayList<>(boardSize);
+    for (String status : STATUSES) {
+      for (int i = 0; i < boardSize / STATUSES.length; i++) {
+        board.add(new TaskView((long) board.size() + 1, "Card number " + board.size() + " with a typical title",
+            status, (i + 1) * 65_536L));
+      }
+    }
+    body = shape.equals("grouped") ? grouped(board) : board;
+
+    byte[] plain = serialize();
+    System.out.printf(Locale.ROOT, "%n# payload boardSize=%d format=%s shape=%s: %d bytes, %d gzipped%n",
+        boardSize, format, shape, plain.length, gzip(plain).length);
+  }
+
+  @Benchmark
+  public byte[] serialize() throws IOException {
+    return mapper.writeValueAsBytes(body);
+  }
+
+  @Benchmark
+  public byte[] serializeGzip() throws IOException {
+    return gzip(mapper.writeValueAsBytes(body));
+  }
+
+  private static byte[] gzip(byte[] bytes) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4);
+    try (GZIPOutputStream z = new GZIPOutputStream(out)) {
+      z.write(bytes);
+    }
+    return out.toByteArray();
+  }
+
+  private static BoardColumns grouped(List<TaskView> board) {
+    List<BoardColumns.Column> columns = new ArrayList<>();
+    for (String status : STATUSES) {
+      List<BoardColumns.Card> cards = new ArrayList<>();
+      for (TaskView t : board) {
+        if (t.status().equals(status)) cards.add(new BoardColumns.Card(t.id(), t.title(), t.position()));
+      }
+      columns.add(new BoardColumns.Column(status, cards));
+    }
+    return new BoardColumns(columns);
+  }
+}
@@ -0,0 +1,43 @@
+package com.sherwin.taskmanager.bench;
+
+import com.sherwin.taskmanager.security.RateLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of an admitted request: a rate no client reaches, so every call takes the CAS path.
+ * {@code threads} callers share one client's bucket (worst-case contention) or use their own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RateLimitBenchmark {
+
+  private final RateLimiter limiter = new RateLimiter(1e9, 1_000_000, 10_000);
+
+  @State(Scope.Thread)
+  public static class Client {
+    final String own = "user-" + Thread.currentThread().getId() + "@example.com";
+  }
+
+  @Benchmark
+  public long oneClient() {
+    return limiter.tryAcquire("admin@example.com");
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long sharedClient4Threads() {
+    return limiter.tryAcquire("admin@example.com");
+  }
+
+  @Benchmark
+  @Threads(4)
+  public long ownClient4Threads(Client client) {
+    return limiter.tryAcquire(client.own);
+  }
+}
@@ -0,0 +1,81 @@
+package com.sherwin.taskmanager.bench;
+
+import com.sherwin.taskmanager.board.Boards;
+import com.sherwin.taskmanager.task.TaskService;
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.task.dto.BatchResult;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-card writes against one column of {@code columnSize} cards of the default project on
+ * embedded H2: the cost a drag pays, and how it scales with the size of the column.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskWriteBenchmark {
+
+  private static final String COLUMN = "Todo";
+  private static final String OTHER = "In Progress";
+
+  @Param({"10", "1000", "100000"})
+  public int columnSize;
+
+  private ConfigurableApplicationContext ctx;
+  private TaskService tasks;
+  private long board;
+  private long[] ids;
+  private final SplittableRandom rnd = new SplittableRandom(42);
+
+  @Setup(Level.Trial)
+  public void boot() {
+    ctx = BenchApp.start(Map.of());
+    tasks = ctx.getBean(TaskService.class);
+    board = ctx.getBean(Boards.class).defaultProjectId();
+    ids = new long[columnSize];
+    int filled = 0;
+    while (filled < columnSize) {
+      int n = Math.min(5_000, columnSize - filled);
+      List<BatchOperation> ops = new ArrayList<>(n);
+      for (int i = 0; i < n; i++) ops.add(new BatchOperation("create", null, "card " + (filled + i), COLUMN, null));
+      for (BatchResult r : tasks.apply(board, ops)) ids[filled++] = r.id();
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void shutdown() {
+    ctx.close();
+  }
+
+  /** Drop a random card at a random index of its own column. */
+  @Benchmark
+  public void reorder() {
+    tasks.reorder(board, ids[rnd.nextInt(columnSize)], COLUMN, rnd.nextInt(columnSize));
+  }
+
+  /** Move a random card to the bottom of another column and back (two moves per op). */
+  @Benchmark
+  public void moveAndBack() {
+    long id = ids[rnd.nextInt(columnSize)];
+    tasks.move(board, id, OTHER);
+    tasks.move(board, id, COLUMN);
+  }
+
+  /** Delete a random card and append a replacement so the column size stays fixed. */
+  @Benchmark
+  public void deleteAndRecreate() {
+    int i = rnd.nextInt(columnSize);
+    tasks.delete(board, ids[i]);
+    ids[i] = tasks.create(board, "replacement", COLUMN).id();
+  }
+}
@@ -0,0 +1,303 @@
+package com.sherwin.taskmanager.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sherwin.taskmanager.TaskmanagerApplication;
+import com.sherwin.taskmanager.board.Boards;
+import com.sherwin.taskmanager.load.LoadStats.Op;
+import com.sherwin.taskmanager.task.BoardEngine;
+import com.sherwin.taskmanager.task.TaskWriteBehind;
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.user.User;
+import com.sherwin.taskmanager.user.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Drag-and-drop load against the real application: boots it on a private H2 database, logs in
+ * N users through {@code /api/auth/login} and has each one drive the operation mix over HTTP
+ * against the shared default board for a fixed time. Prints throughput, latency percentiles
+ * and conflict/error rates per operation, then checks the board is still consistent. Runs once
+ * per entry of {@code users}, each on a fresh application, so the rows compare scaling.
+ * <pre>
+ *   ./mvnw -Pload -DskipTests verify -Dload.args="users=1,8,64 duration=30s mix=list:40,reorder:40,move:10,create:5,delete:5"
+ * </pre>
+ * Arguments (all optional): users, duration, warmup, mix, cards (initial board size), think
+ * (ms between a user's requests), engine (jpa|memory), seed, out (CSV of the results),
+ * threads (platform and/or virtual request threads, the latter with the {@code vthreads}
+ * profile on JDK 21) and latency (simulated database round trip, see {@link SimulatedLatency}).
+ */
+public final class LoadHarness {
+
+  /** Weighted choice of the next board operation. */
+  record Mix(Map<Op, Integer> weights) {
+
+    static Mix parse(String spec) {
+      Map<Op, Integer> weights = new LinkedHashMap<>();
+      for (String part : spec.split(",")) {
+        String[] kv = part.split(":");
+        Op op = Op.valueOf(kv[0].trim().toUpperCase(Locale.ROOT));
+        if (op == Op.LOGIN) throw new IllegalArgumentException("login is not part of the mix");
+        weights.put(op, Integer.parseInt(kv[1].trim()));
+      }
+      if (weights.values().stream().mapToInt(Integer::intValue).sum() <= 0) throw new IllegalArgumentException("Empty mix");
+      return new Mix(weights);
+    }
+
+    Op next(SplittableRandom rnd) {
+      int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+      int pick = rnd.nextInt(total);
+      for (Map.Entry<Op, Integer> e : weights.entrySet()) {
+        pick -= e.getValue();
+        if (pick < 0) return e.getKey();
+      }
+      throw new IllegalStateException();
+    }
+  }
+
+  record Options(List<Integer> users, Duration duration, Duration warmup, Mix mix, int cards, long thinkMs,
+                 String engine, long seed, Path out, List<String> threads, Duration latency) {
+
+    static Options parse(String[] args) {
+      Map<String, String> kv = new HashMap<>(Map.ofEntries(
+          Map.entry("users", "1,4,16,64"),
+          Map.entry("duration", "20s"),
+          Map.entry("warmup", "5s"),
+          Map.entry("mix", "list:30,reorder:40,move:15,create:10,delete:5"),
+          Map.entry("cards", "500"),
+          Map.entry("think", "0"),
+          Map.entry("engine", "jpa"),
+          Map.entry("seed", "42"),
+          Map.entry("out", "target/load-result.csv"),
+          Map.entry("threads", "platform"),
+          Map.entry("latency", "0ms")));
+      for (String arg : args) {
+        int eq = arg.indexOf('=');
+        if (eq < 0 || !kv.containsKey(arg.substring(0, eq))) throw new IllegalArgumentException("Unknown argument: " + arg);
+        kv.put(arg.substring(0, eq), arg.substring(eq + 1));
+      }
+      List<Integer> users = new ArrayList<>();
+      for (String u : kv.get("users").split(",")) users.add(Integer.parseInt(u.trim()));
+      List<String> threads = new ArrayList<>();
+      for (String t : kv.get("threads").split(",")) {
+        t = t.trim().toLowerCase(Locale.ROOT);
+        if (!t.equals("platform") && !t.equals("virtual")) throw new IllegalArgumentException("threads is platform or virtual: " + t);
+        if (t.equals("virtual") && Runtime.version().feature() < 21) throw new IllegalArgumentException("threads=virtual needs JDK 21");
+        threads.add(t);
+      }
+      return new Options(users, duration(kv.get("duration")), duration(kv.get("warmup")), Mix.parse(kv.get("mix")),
+          Integer.parseInt(kv.get("cards")), Long.parseLong(kv.get("think")), kv.get("engine"),
+          Long.parseLong(kv.get("seed")), Path.of(kv.get("out")), threads, duration(kv.get("latency")));
+    }
+
+    /** {@code 30s}, {@code 500ms}, {@code 2m} or ISO-8601. */
+    private static Duration duration(String s) {
+      if (s.endsWith("ms")) return Duration.ofMillis(Long.parseLong(s.substring(0, s.length() - 2)));
+      if (s.endsWith("s")) return Duration.ofSeconds(Long.parseLong(s.substring(0, s.length() - 1)));
+      if (s.endsWith("m")) return Duration.ofMinutes(Long.parseLong(s.substring(0, s.length() - 1)));
+      return Duration.parse(s);
+    }
+  }
+
+  /** What was wrong with the board after the run; empty when nothing was. */
+  record Integrity(int cards, List<String> problems) {
+    boolean ok() {
+      return problems.isEmpty();
+    }
+  }
+
+  private static final String PASSWORD = "load-test-password";
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private LoadHarness() { }
+
+  public static void main(String[] args) throws Exception {
+    Options options = Options.parse(args);
+    Files.createDirectories(options.out().toAbsolutePath().getParent());
+    boolean consistent = true;
+    try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(options.out(), StandardCharsets.UTF_8))) {
+      csv.println("threads,users,op,count,ops_per_sec,p50_ms,p90_ms,p99_ms,p999_ms,max_ms,conflicts,not_found,errors,integrity");
+      for (String threads : options.threads()) {
+        for (int users : options.users()) consistent &= run(options, threads, users, csv);
+      }
+    }
+    System.out.println("Results written to " + options.out().toAbsolutePath());
+    System.exit(consistent ? 0 : 1);
+  }
+
+  private static boolean run(Options o, String threadModel, int users, PrintWriter csv) throws Exception {
+    try (ConfigurableApplicationContext ctx = boot(o, threadModel)) {
+      URI base = URI.create("http://localhost:" + ((WebServerApplicationContext) ctx).getWebServer().getPort());
+      long project = ctx.getBean(Boards.class).defaultProjectId();
+      List<String> columns = ctx.getBean(Boards.class).columns(project);
+      seed(ctx, project, columns, o.cards(), users);
+
+      LoadStats stats = new LoadStats();
+      AtomicBoolean stop = new AtomicBoolean();
+      List<Thread> threads = new ArrayList<>(users);
+      for (int i = 0; i < users; i++) {
+        VirtualUser user = new VirtualUser(i, base, o, columns, stats, stop);
+        user.login(email(i), PASSWORD);
+        Thread t = new Thread(user, "load-user-" + i);
+        threads.add(t);
+      }
+      LoadStats.Summary login = stats.summary(Op.LOGIN, 1);
+
+      threads.forEach(Thread::start);
+      Thread.sleep(o.warmup().toMillis());
+      stats.reset();
+      long start = System.nanoTime();
+      Thread.sleep(o.duration().toMillis());
+      stop.set(true);
+      long elapsed = System.nanoTime() - start;
+      for (Thread t : threads) t.join(Duration.ofSeconds(60).toMillis());
+
+      Integrity integrity = check(ctx, base, project);
+      report(o, threadModel, users, elapsed, stats, login, integrity, csv);
+      return integrity.ok();
+    }
+  }
+
+  private static ConfigurableApplicationContext boot(Options o, String threadModel) {
+    Map<String, Object> props = new LinkedHashMap<>();
+    props.put("spring.datasource.url", "jdbc:h2:mem:load-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL");
+    props.put("server.port", "0");
+    props.put("spring.main.banner-mode", "off");
+    props.put("logging.level.root", "WARN");
+    props.put("app.board.engine", o.engine());
+    props.put("app.board.journal.dir", "target/load-journal/" + UUID.randomUUID());
+    props.put("app.ratelimit.enabled", "false"); // every user here is a runaway script
+    if (threadModel.equals("virtual")) props.put("spring.profiles.active", "vthreads");
+    // as command-line args, so they win over application.properties
+    String[] args = props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new);
+    SpringApplicationBuilder app = new SpringApplicationBuilder(TaskmanagerApplication.class);
+    if (!o.latency().isZero()) {
+      // added before the application's own post-processors, so it wraps the bare pool
+      app.initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new SimulatedLatency(o.latency())));
+    }
+    return app.run(args);
+  }
+
+  /** The users, and {@code cards} cards spread over the columns, written in-process. */
+  private static void seed(ConfigurableApplicationContext ctx, long project, List<String> columns, int cards, int users) {
+    UserRepository repo = ctx.getBean(UserRepository.class);
+    String hash = ctx.getBean(PasswordEncoder.class).encode(PASSWORD);
+    for (int i = 0; i < users; i++) {
+      User u = new User();
+      u.setEmail(email(i));
+      u.setName("Load user " + i);
+      u.setPasswordHash(hash);
+      repo.save(u);
+    }
+    BoardEngine engine = ctx.getBean(BoardEngine.class);
+    List<BatchOperation> ops = new ArrayList<>();
+    for (int i = 0; i < cards; i++) {
+      ops.add(new BatchOperation("create", null, "seed " + i, columns.get(i % columns.size()), null));
+      if (ops.size() == 1000 || i == cards - 1) {
+        engine.apply(project, ops);
+        ops.clear();
+      }
+    }
+  }
+
+  /**
+   * The board as served must be what the table holds, and ordered: positions strictly increase
+   * within a column (no two cards share a slot), and every card is in a column of its project.
+   */
+  private static Integrity check(ConfigurableApplicationContext ctx, URI base, long project) throws IOException, InterruptedException {
+    ctx.getBeansOfType(TaskWriteBehind.class).values().forEach(TaskWriteBehind::flush);
+    JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+    List<String> problems = new ArrayList<>();
+
+    HttpClient http = HttpClient.newHttpClient();
+    String token = JSON.readTree(http.send(HttpRequest.newBuilder(base.resolve("/api/auth/login"))
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email(0) + "\",\"password\":\"" + PASSWORD + "\"}"))
+        .build(), HttpResponse.BodyHandlers.ofString()).body()).get("token").asText();
+    JsonNode board = JSON.readTree(http.send(HttpRequest.newBuilder(base.resolve("/api/tasks"))
+        .header("Authorization", "Bearer " + token).build(), HttpResponse.BodyHandlers.ofString()).body());
+
+    String column = null;
+    long last = Long.MIN_VALUE;
+    for (JsonNode t : board) {
+      String status = t.get("status").asText();
+      long pos = t.get("position").asLong();
+      if (!status.equals(column)) {
+        column = status;
+      } else if (pos <= last) {
+        problems.add("card " + t.get("id").asLong() + " at position " + pos + " after " + last + " in " + status);
+      }
+      last = pos;
+    }
+
+    Integer rows = jdbc.queryForObject("select count(*) from task where project_id = ?", Integer.class, project);
+    if (rows == null || rows != board.size()) problems.add("board lists " + board.size() + " cards, table holds " + rows);
+    Integer shared = jdbc.queryForObject("""
+        select count(*) from (select column_id, position from task where project_id = ?
+                              group by column_id, position having count(*) > 1) d
+        """, Integer.class, project);
+    if (shared != null && shared > 0) problems.add(shared + " positions held by more than one card");
+    Integer misplaced = jdbc.queryForObject("""
+        select count(*) from task t join board_column c on c.id = t.column_id where c.project_id <> t.project_id
+        """, Integer.class);
+    if (misplaced != null && misplaced > 0) problems.add(misplaced + " cards in another project's column");
+    return new Integrity(board.size(), problems);
+  }
+
+  private static void report(Options o, String threadModel, int users, long elapsedNanos, LoadStats stats, LoadStats.Summary login,
+                             Integrity integrity, PrintWriter csv) {
+    List<LoadStats.Summary> rows = new ArrayList<>();
+    for (Op op : o.mix().weights().keySet()) rows.add(stats.summary(op, elapsedNanos));
+    long total = rows.stream().mapToLong(LoadStats.Summary::count).sum();
+    long conflicts = rows.stream().mapToLong(LoadStats.Summary::conflicts).sum();
+    long errors = rows.stream().mapToLong(LoadStats.Summary::errors).sum();
+
+    System.out.printf(Locale.ROOT, "%nthreads=%s users=%d engine=%s  %.0f ops/s  conflicts %.2f%%  errors %.2f%%  login p50 %.1f ms%n",
+        threadModel, users, o.engine(), total / (elapsedNanos / 1e9), pct(conflicts, total), pct(errors, total), login.percentileMs(50));
+    System.out.printf(Locale.ROOT, "  %-8s %9s %9s %8s %8s %8s %8s %8s %9s %9s %7s%n",
+        "op", "count", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "conflicts", "not found", "errors");
+    String verdict = integrity.ok() ? "ok" : "FAILED";
+    for (LoadStats.Summary s : rows) {
+      System.out.printf(Locale.ROOT, "  %-8s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %8.2f %9d %9d %7d%n",
+          s.op().name().toLowerCase(Locale.ROOT), s.count(), s.perSecond(), s.percentileMs(50), s.percentileMs(90),
+          s.percentileMs(99), s.percentileMs(99.9), s.maxMs(), s.conflicts(), s.notFound(), s.errors());
+      csv.printf(Locale.ROOT, "%s,%d,%s,%d,%.1f,%.3f,%.3f,%.3f,%.3f,%.3f,%d,%d,%d,%s%n",
+          threadModel, users, s.op().name().toLowerCase(Locale.ROOT), s.count(), s.perSecond(), s.percentileMs(50), s.percentileMs(90),
+          s.percentileMs(99), s.percentileMs(99.9), s.maxMs(), s.conflicts(), s.notFound(), s.errors(), verdict);
+    }
+    System.out.println("  integrity: " + verdict + " (" + integrity.cards() + " cards)");
+    integrity.problems().stream().limit(20).forEach(p -> System.out.println("    " + p));
+    csv.flush();
+  }
+
+  private static double pct(long part, long total) {
+    return total == 0 ? 0 : 100.0 * part / total;
+  }
+
+  private static String email(int i) {
+    return "load-" + i + "@example.com";
+  }
+}
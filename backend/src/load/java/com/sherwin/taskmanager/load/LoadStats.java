@@ -0,0 +1,74 @@
+package com.sherwin.taskmanager.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Latency and outcome counts per operation, recorded concurrently by every virtual user. */
+final class LoadStats {
+
+  enum Op { LOGIN, LIST, CREATE, REORDER, MOVE, DELETE }
+
+  /** 2xx/304 is ok; 409 a write conflict; 404 a card someone else deleted; anything else an error. */
+  enum Outcome { OK, CONFLICT, NOT_FOUND, ERROR }
+
+  /** One operation's numbers over a measurement window. */
+  record Summary(Op op, long count, double perSecond, Histogram latencyMicros, long conflicts, long notFound, long errors) {
+
+    double percentileMs(double p) {
+      return latencyMicros.getValueAtPercentile(p) / 1000.0;
+    }
+
+    double maxMs() {
+      return latencyMicros.getMaxValue() / 1000.0;
+    }
+  }
+
+  private final Map<Op, Recorder> latency = new EnumMap<>(Op.class);
+  private final Map<Op, LongAdder[]> outcomes = new EnumMap<>(Op.class);
+
+  LoadStats() {
+    for (Op op : Op.values()) {
+      latency.put(op, new Recorder(3));
+      LongAdder[] counts = new LongAdder[Outcome.values().length];
+      for (int i = 0; i < counts.length; i++) counts[i] = new LongAdder();
+      outcomes.put(op, counts);
+    }
+  }
+
+  /** {@code status} is the HTTP status, or -1 if the request failed without one. */
+  void record(Op op, long startNanos, int status) {
+    latency.get(op).recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos)));
+    outcomes.get(op)[outcome(status).ordinal()].increment();
+  }
+
+  /** Drops everything recorded so far (the warmup). */
+  void reset() {
+    for (Op op : Op.values()) {
+      latency.get(op).reset();
+      for (LongAdder a : outcomes.get(op)) a.reset();
+    }
+  }
+
+  /** What was recorded since the last reset, over {@code elapsedNanos} of wall time. */
+  Summary summary(Op op, long elapsedNanos) {
+    Histogram h = latency.get(op).getIntervalHistogram();
+    LongAdder[] counts = outcomes.get(op);
+    long count = h.getTotalCount();
+    return new Summary(op, count, count / (elapsedNanos / 1e9), h,
+        counts[Outcome.CONFLICT.ordinal()].sum(),
+        counts[Outcome.NOT_FOUND.ordinal()].sum(),
+        counts[Outcome.ERROR.ordinal()].sum());
+  }
+
+  static Outcome outcome(int status) {
+    if (status >= 200 && status < 300 || status == 304) return Outcome.OK;
+    if (status == 409) return Outcome.CONFLICT;
+    if (status == 404) return Outcome.NOT_FOUND;
+    return Outcome.ERROR;
+  }
+}
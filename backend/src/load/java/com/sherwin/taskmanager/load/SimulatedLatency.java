@@ -0,0 +1,62 @@
+package com.sherwin.taskmanager.load;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Makes the in-memory H2 behave like a database across a network: every statement execution,
+ * commit and rollback first sleeps for {@code latency}, one simulated round trip. The thread
+ * blocks just as it would on a socket read, which is what separates the thread models.
+ */
+final class SimulatedLatency implements BeanPostProcessor {
+
+  private static final Set<String> ROUND_TRIPS = Set.of(
+      "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch",
+      "commit", "rollback");
+
+  private final long millis;
+
+  SimulatedLatency(Duration latency) {
+    this.millis = latency.toMillis();
+  }
+
+  @Override
+  public Object postProcessAfterInitialization(Object bean, String name) {
+    if (!"dataSource".equals(name) || !(bean instanceof DataSource ds)) return bean;
+    return proxy(DataSource.class, ds);
+  }
+
+  /** {@code target} with a pause before each round trip; connections and statements it returns are wrapped too. */
+  private <T> T proxy(Class<T> type, T target) {
+    return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, (p, method, args) -> {
+      if (ROUND_TRIPS.contains(method.getName())) Thread.sleep(millis);
+      Object result = invoke(method, target, args);
+      if (result instanceof Connection c && method.getReturnType() == Connection.class) return proxy(Connection.class, c);
+      if (result instanceof Statement s && Statement.class.isAssignableFrom(method.getReturnType())) {
+        return proxy(statementType(method.getReturnType()), s);
+      }
+      return result;
+    }));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Class<Statement> statementType(Class<?> declared) {
+    return (Class<Statement>) declared;
+  }
+
+  private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+}
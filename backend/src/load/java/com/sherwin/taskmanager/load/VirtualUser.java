@@ -0,0 +1,150 @@
+package com.sherwin.taskmanager.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sherwin.taskmanager.load.LoadStats.Op;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One simulated user: logs in, then loops over the mix like a browser tab on the shared board
+ * would. It works from its own last copy of the board (refreshed by LIST, revalidated with
+ * the ETag), so it drags and deletes cards other users may have moved or deleted meanwhile,
+ * as real clients do.
+ */
+final class VirtualUser implements Runnable {
+
+  private record Card(long id, String status) {}
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private final int n;
+  private final URI base;
+  private final LoadHarness.Options options;
+  private final List<String> columns;
+  private final LoadStats stats;
+  private final AtomicBoolean stop;
+  private final SplittableRandom rnd;
+  private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(TIMEOUT).build();
+
+  private String bearer;
+  private String etag;
+  private List<Card> board = List.of();
+  private long created;
+
+  VirtualUser(int n, URI base, LoadHarness.Options options, List<String> columns, LoadStats stats, AtomicBoolean stop) {
+    this.n = n;
+    this.base = base;
+    this.options = options;
+    this.columns = columns;
+    this.stats = stats;
+    this.stop = stop;
+    this.rnd = new SplittableRandom(options.seed() + n);
+  }
+
+  void login(String email, String password) throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    HttpResponse<String> res = send(json("POST", "/api/auth/login",
+        "{\"email\":\"" + email + "\",\"password\":\"" + password + "\"}"));
+    stats.record(Op.LOGIN, start, res.statusCode());
+    if (res.statusCode() != 200) throw new IllegalStateException("Login of " + email + " failed: " + res.statusCode());
+    bearer = "Bearer " + JSON.readTree(res.body()).get("token").asText();
+  }
+
+  @Override
+  public void run() {
+    while (!stop.get()) {
+      Op op = board.isEmpty() ? Op.LIST : options.mix().next(rnd);
+      long start = System.nanoTime();
+      int status;
+      try {
+        status = step(op);
+      } catch (IOException e) {
+        status = -1;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      stats.record(op, start, status);
+      if (options.thinkMs() > 0) {
+        try {
+          Thread.sleep(options.thinkMs());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private int step(Op op) throws IOException, InterruptedException {
+    switch (op) {
+      case LIST -> {
+        HttpRequest.Builder req = request("/api/tasks").GET();
+        if (etag != null) req.header("If-None-Match", etag);
+        HttpResponse<String> res = send(req.build());
+        if (res.statusCode() == 200) {
+          etag = res.headers().firstValue("ETag").orElse(null);
+          List<Card> cards = new ArrayList<>();
+          for (JsonNode t : JSON.readTree(res.body())) cards.add(new Card(t.get("id").asLong(), t.get("status").asText()));
+          board = cards;
+        }
+        return res.statusCode();
+      }
+      case CREATE -> {
+        return send(json("POST", "/api/tasks",
+            "{\"title\":\"user " + n + " card " + (++created) + "\",\"status\":\"" + column() + "\"}")).statusCode();
+      }
+      case REORDER -> {
+        int perColumn = Math.max(1, board.size() / columns.size());
+        return send(json("PATCH", "/api/tasks/" + card().id() + "/reorder",
+            "{\"status\":\"" + column() + "\",\"index\":" + rnd.nextInt(perColumn + 1) + "}")).statusCode();
+      }
+      case MOVE -> {
+        Card c = card();
+        String to = column();
+        while (columns.size() > 1 && to.equals(c.status())) to = column();
+        return send(json("PATCH", "/api/tasks/" + c.id() + "/move", "{\"status\":\"" + to + "\"}")).statusCode();
+      }
+      case DELETE -> {
+        return send(request("/api/tasks/" + card().id()).DELETE().build()).statusCode();
+      }
+      default -> throw new IllegalArgumentException("Not a board operation: " + op);
+    }
+  }
+
+  private Card card() {
+    return board.get(rnd.nextInt(board.size()));
+  }
+
+  private String column() {
+    return columns.get(rnd.nextInt(columns.size()));
+  }
+
+  private HttpRequest.Builder request(String path) {
+    HttpRequest.Builder b = HttpRequest.newBuilder(base.resolve(path)).timeout(TIMEOUT);
+    if (bearer != null) b.header("Authorization", bearer);
+    return b;
+  }
+
+  private HttpRequest json(String method, String path, String body) {
+    return request(path)
+        .header("Content-Type", "application/json")
+        .method(method, HttpRequest.BodyPublishers.ofString(body))
+        .build();
+  }
+
+  private HttpResponse<String> send(HttpRequest req) throws IOException, InterruptedException {
+    return http.send(req, HttpResponse.BodyHandlers.ofString());
+  }
+}
@@ -2,8 +2,10 @@ package com.sherwin.taskmanager;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TaskmanagerApplication {
   public static void main(String[] args) {
     SpringApplication.run(TaskmanagerApplication.class, args);
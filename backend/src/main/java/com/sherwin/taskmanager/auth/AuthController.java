@@ -4,6 +4,8 @@ import com.sherwin.taskmanager.auth.dto.LoginRequest;
 import com.sherwin.taskmanager.auth.dto.LoginResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,4 +21,11 @@ public class AuthController {
     String token = auth.login(body.email(), body.password());
     return ResponseEntity.ok(new LoginResponse(token));
   }
+
+  @ExceptionHandler(LoginThrottledException.class)
+  public ResponseEntity<Void> throttled(LoginThrottledException e) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+        .build();
+  }
 }
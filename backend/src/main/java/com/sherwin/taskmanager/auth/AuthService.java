@@ -1,25 +1,24 @@
 package com.sherwin.taskmanager.auth;
 
 import com.sherwin.taskmanager.security.JwtService;
-import com.sherwin.taskmanager.user.User;
-import com.sherwin.taskmanager.user.UserRepository;
+import com.sherwin.taskmanager.user.CachedUser;
+import com.sherwin.taskmanager.user.UserCache;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class AuthService {
-  private final UserRepository users;
-  private final PasswordEncoder enc;   // <-- use interface, not BCryptPasswordEncoder
+  private final UserCache users;
+  private final PasswordVerifier passwords; // BCrypt off the request thread, with load shedding
   private final JwtService jwt;
 
   public String login(String email, String password) {
-    User u = users.findByEmail(email)
+    CachedUser u = users.findByEmail(email)
         .orElseThrow(() -> new RuntimeException("User not found"));
-    if (!enc.matches(password, u.getPasswordHash())) {
+    if (!passwords.matches(password, u)) {
       throw new RuntimeException("Invalid credentials");
     }
-    return jwt.generate(u.getEmail());
+    return jwt.generate(u.email(), u.role().name());
   }
 }
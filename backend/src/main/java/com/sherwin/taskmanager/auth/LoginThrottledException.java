@@ -0,0 +1,14 @@
+package com.sherwin.taskmanager.auth;
+
+import lombok.Getter;
+
+/** The password-check pool is saturated; the client should retry after {@link #getRetryAfterSeconds()}. */
+@Getter
+public class LoginThrottledException extends RuntimeException {
+  private final long retryAfterSeconds;
+
+  public LoginThrottledException(long retryAfterSeconds) {
+    super("Too many concurrent logins");
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
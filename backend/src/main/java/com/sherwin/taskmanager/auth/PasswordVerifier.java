@@ -0,0 +1,126 @@
+package com.sherwin.taskmanager.auth;
+
+import com.sherwin.taskmanager.user.CachedUser;
+import com.sherwin.taskmanager.user.UserCache;
+import com.sherwin.taskmanager.user.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt on a small dedicated pool instead of the servlet threads. The pool has a fixed
+ * queue; once it is full new logins fail fast with {@link LoginThrottledException} rather than
+ * piling up and starving task traffic. Hashes whose cost differs from the configured
+ * strength are rewritten after a successful login.
+ */
+@Slf4j
+@Component
+public class PasswordVerifier {
+
+  private final PasswordEncoder enc;
+  private final UserRepository users;
+  private final UserCache cache;
+  private final int strength;
+  private final Duration timeout;
+  private final ThreadPoolExecutor pool;
+  private final Timer bcrypt;
+  private final Counter shed;
+
+  public PasswordVerifier(PasswordEncoder enc,
+                          UserRepository users,
+                          UserCache cache,
+                          @Value("${app.security.bcrypt-strength:10}") int strength,
+                          @Value("${app.auth.workers:0}") int workers,
+                          @Value("${app.auth.queue:64}") int queue,
+                          @Value("${app.auth.timeout:PT5S}") Duration timeout,
+                          MeterRegistry meters) {
+    this.enc = enc;
+    this.users = users;
+    this.cache = cache;
+    this.strength = strength;
+    this.timeout = timeout;
+    int threads = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+    AtomicInteger n = new AtomicInteger();
+    this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queue),
+        r -> {
+          Thread t = new Thread(r, "bcrypt-" + n.incrementAndGet());
+          t.setDaemon(true);
+          return t;
+        },
+        new ThreadPoolExecutor.AbortPolicy());
+    this.bcrypt = Timer.builder("auth.bcrypt").description("BCrypt matches() time on the worker pool").register(meters);
+    this.shed = Counter.builder("auth.login.shed").description("Logins refused because the pool was saturated").register(meters);
+    Gauge.builder("auth.bcrypt.queue", pool, p -> p.getQueue().size()).register(meters);
+  }
+
+  /** True if {@code raw} matches the user's hash; blocks the caller for at most the configured timeout. */
+  public boolean matches(String raw, CachedUser user) {
+    Future<Boolean> check;
+    try {
+      check = pool.submit(() -> bcrypt.record(() -> enc.matches(raw, user.passwordHash())));
+    } catch (RejectedExecutionException e) {
+      shed.increment();
+      throw new LoginThrottledException(retryAfterSeconds());
+    }
+    boolean ok;
+    try {
+      ok = check.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException e) {
+      check.cancel(true);
+      shed.increment();
+      throw new LoginThrottledException(retryAfterSeconds());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new LoginThrottledException(retryAfterSeconds());
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Password check failed", e.getCause());
+    }
+    if (ok && cost(user.passwordHash()) != strength) rehash(raw, user);
+    return ok;
+  }
+
+  // compare-and-set: a password changed since the login read the hash is kept
+  private void rehash(String raw, CachedUser user) {
+    try {
+      pool.execute(() -> {
+        if (users.replacePasswordHash(user.id(), user.passwordHash(), enc.encode(raw)) == 0) return;
+        cache.evict(user);
+        log.info("Rehashed password for user {} at cost {}", user.id(), strength);
+      });
+    } catch (RejectedExecutionException e) {
+      // busy: try again on the next login
+    }
+  }
+
+  /** Rough wait until a queue slot frees up, based on how many checks are ahead of the client. */
+  private long retryAfterSeconds() {
+    int ahead = pool.getQueue().size() + pool.getActiveCount();
+    return Math.max(1, ahead / Math.max(1, pool.getMaximumPoolSize()));
+  }
+
+  /** Cost factor of a {@code $2a$NN$...} hash, or -1 if it is not BCrypt. */
+  static int cost(String hash) {
+    if (hash == null || hash.length() < 7 || hash.charAt(0) != '$' || hash.charAt(3) != '$') return -1;
+    try {
+      return Integer.parseInt(hash.substring(4, 6));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    pool.shutdown();
+  }
+}
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity @Getter @Setter @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "ux_board_column_name", columnNames = {"project_id", "name"}))
 public class BoardColumn {
   @Id @GeneratedValue private Long id;
   @ManyToOne(optional=false) private Project project;
@@ -2,4 +2,8 @@ package com.sherwin.taskmanager.board;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface BoardColumnRepository extends JpaRepository<BoardColumn, Long> { }
+import java.util.List;
+
+public interface BoardColumnRepository extends JpaRepository<BoardColumn, Long> {
+  List<BoardColumn> findAllByProjectIdOrderByPositionAsc(Long projectId);
+}
@@ -0,0 +1,98 @@
+package com.sherwin.taskmanager.board;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.sherwin.taskmanager.project.Project;
+import com.sherwin.taskmanager.project.ProjectRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Column layout of each project's board, read from {@link BoardColumn} once and then served
+ * from memory. Tasks store their column as a {@code column_id}; every board read and write
+ * translates between that id and the column name here, so it must not cost a query.
+ * Requests to {@code /api/tasks} without a project go to the default (oldest) project, the
+ * board every user shares; any other project is its owner's alone.
+ */
+@Component
+public class Boards {
+
+  /** One column of a board, left to right in list order. */
+  public record Column(long id, String name) {}
+
+  private final BoardColumnRepository columns;
+  private final ProjectRepository projects;
+  private final Cache<Long, List<Column>> byProject;
+  private final Cache<Long, String> owners;
+  private volatile Long defaultProjectId;
+
+  public Boards(BoardColumnRepository columns,
+                ProjectRepository projects,
+                @Value("${app.board.cached-projects:10000}") long cachedProjects) {
+    this.columns = columns;
+    this.projects = projects;
+    this.byProject = Caffeine.newBuilder().maximumSize(cachedProjects).build();
+    this.owners = Caffeine.newBuilder().maximumSize(cachedProjects).build();
+  }
+
+  /** The project's board, left to right; a project without columns does not exist. */
+  public List<Column> layout(long projectId) {
+    List<Column> board = byProject.get(projectId, id -> columns.findAllByProjectIdOrderByPositionAsc(id).stream()
+        .map(c -> new Column(c.getId(), c.getName()))
+        .toList());
+    if (board.isEmpty()) {
+      byProject.invalidate(projectId);
+      throw new NoSuchElementException("Project not found");
+    }
+    return board;
+  }
+
+  public List<String> columns(long projectId) {
+    return layout(projectId).stream().map(Column::name).toList();
+  }
+
+  public boolean hasColumn(long projectId, String name) {
+    for (Column c : layout(projectId)) if (c.name().equals(name)) return true;
+    return false;
+  }
+
+  /** Id of the project's column {@code name}; an {@link IllegalArgumentException} if there is none. */
+  public long columnId(long projectId, String name) {
+    for (Column c : layout(projectId)) if (c.name().equals(name)) return c.id();
+    throw new IllegalArgumentException("Unknown column '" + name + "'");
+  }
+
+  public long firstColumnId(long projectId) {
+    return layout(projectId).get(0).id();
+  }
+
+  public String columnName(long projectId, long columnId) {
+    for (Column c : layout(projectId)) if (c.id() == columnId) return c.name();
+    throw new NoSuchElementException("Column not found");
+  }
+
+  public long defaultProjectId() {
+    Long id = defaultProjectId;
+    if (id == null) {
+      id = projects.findFirstByOrderByIdAsc().map(Project::getId)
+          .orElseThrow(() -> new NoSuchElementException("No default project"));
+      defaultProjectId = id;
+    }
+    return id;
+  }
+
+  /** Whether {@code user} (an email) may use the project's board: the default one, or one they own. */
+  public boolean isVisibleTo(long projectId, String user) {
+    if (projectId == defaultProjectId()) return true;
+    String owner = owners.get(projectId, id -> projects.findOwnerEmailById(id).orElse(null));
+    return owner != null && owner.equals(user);
+  }
+
+  /** Drops the cached layout after the project's columns were changed. */
+  public void evict(long projectId) {
+    byProject.invalidate(projectId);
+  }
+}
@@ -1,26 +1,43 @@
 package com.sherwin.taskmanager.bootstrap;
 
-import com.sherwin.taskmanager.task.Task;
+import com.sherwin.taskmanager.project.Project;
+import com.sherwin.taskmanager.project.ProjectRepository;
+import com.sherwin.taskmanager.project.ProjectService;
+import com.sherwin.taskmanager.task.BoardEngine;
 import com.sherwin.taskmanager.task.TaskRepository;
 import com.sherwin.taskmanager.user.User;
 import com.sherwin.taskmanager.user.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+/**
+ * Development seed data: the admin user, the default project and a few cards. Production sets
+ * {@code app.seed.enabled=false} and skips every lookup here. Checked at run time rather than
+ * with a condition, so an AOT-processed build can still switch it.
+ */
 @Component
 @RequiredArgsConstructor
 public class Dataloader implements CommandLineRunner {
 
   private final UserRepository users;
   private final TaskRepository tasks;
+  private final BoardEngine engine;
+  private final ProjectRepository projects;
+  private final ProjectService projectService;
   private final PasswordEncoder enc;
 
+  @Value("${app.seed.enabled:true}")
+  private boolean enabled;
+
   @Override
   public void run(String... args) {
+    if (!enabled) return;
+
     // Seed admin user
-    users.findByEmail("admin@example.com").orElseGet(() -> {
+    User admin = users.findByEmail("admin@example.com").orElseGet(() -> {
       User u = new User();
       u.setEmail("admin@example.com");
       u.setName("Admin");
@@ -29,22 +46,15 @@ public class Dataloader implements CommandLineRunner {
       return users.save(u);
     });
 
+    // Seed the default project (the board behind /api/tasks)
+    Project board = projects.findFirstByOrderByIdAsc().orElseGet(() ->
+        projectService.create("Default", "Board served at /api/tasks", admin, ProjectService.DEFAULT_COLUMNS));
+
     // Seed tasks only if empty
     if (tasks.count() == 0) {
-      Task t1 = new Task();
-      t1.setTitle("Setup project");
-      t1.setStatus("Todo");
-      tasks.save(t1);
-
-      Task t2 = new Task();
-      t2.setTitle("Build login");
-      t2.setStatus("In Progress");
-      tasks.save(t2);
-
-      Task t3 = new Task();
-      t3.setTitle("Connect board API");
-      t3.setStatus("Done");
-      tasks.save(t3);
+      engine.create(board.getId(), "Setup project", "Todo");
+      engine.create(board.getId(), "Build login", "In Progress");
+      engine.create(board.getId(), "Connect board API", "Done");
     }
   }
 }
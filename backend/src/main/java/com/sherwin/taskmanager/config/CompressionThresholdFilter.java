@@ -0,0 +1,142 @@
+package com.sherwin.taskmanager.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Makes {@code server.compression.min-response-size} apply to message-converter bodies.
+ * Tomcat can only compare the size when the Content-Length is known, and Jackson flushes as it
+ * finishes, so every JSON body went out chunked and was gzipped however small. Here the first
+ * {@code min-response-size} bytes are held (flushes are ignored meanwhile): a body that ends
+ * within them is sent with its length and left alone, a longer one streams on as before.
+ * Async responses (SSE, streamed bodies) stop buffering when the handler returns.
+ */
+@Component
+@ConditionalOnProperty(name = "server.compression.enabled", havingValue = "true")
+public class CompressionThresholdFilter extends OncePerRequestFilter {
+
+  private final int threshold;
+
+  public CompressionThresholdFilter(@Value("${server.compression.min-response-size:2KB}") DataSize threshold) {
+    this.threshold = (int) threshold.toBytes();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+      throws ServletException, IOException {
+    Buffered buffered = new Buffered(res, threshold);
+    try {
+      chain.doFilter(req, buffered);
+    } finally {
+      if (req.isAsyncStarted()) buffered.release();
+      else buffered.finish();
+    }
+  }
+
+  private static final class Buffered extends HttpServletResponseWrapper {
+    private final int threshold;
+    private ByteArrayOutputStream head = new ByteArrayOutputStream();
+    private ServletOutputStream out;
+
+    Buffered(HttpServletResponse res, int threshold) {
+      super(res);
+      this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized ServletOutputStream getOutputStream() throws IOException {
+      if (out == null) {
+        ServletOutputStream target = super.getOutputStream();
+        out = new ServletOutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            synchronized (Buffered.this) {
+              if (head != null && head.size() + len <= threshold) {
+                head.write(b, off, len);
+                return;
+              }
+              release();
+            }
+            target.write(b, off, len);
+          }
+
+          @Override
+          public void flush() throws IOException {
+            synchronized (Buffered.this) {
+              if (head != null) return;
+            }
+            target.flush();
+          }
+
+          @Override
+          public boolean isReady() {
+            return target.isReady();
+          }
+
+          @Override
+          public void setWriteListener(WriteListener listener) {
+            target.setWriteListener(listener);
+          }
+        };
+      }
+      return out;
+    }
+
+    @Override
+    public synchronized void flushBuffer() throws IOException {
+      if (head == null) super.flushBuffer();
+    }
+
+    @Override
+    public synchronized void resetBuffer() {
+      if (head != null) head.reset();
+      super.resetBuffer();
+    }
+
+    @Override
+    public synchronized void reset() {
+      if (head != null) head.reset();
+      super.reset();
+    }
+
+    /** The body ended within the threshold: send it with its length, so Tomcat can size it. */
+    synchronized void finish() throws IOException {
+      if (head == null || head.size() == 0) {
+        release();
+        return;
+      }
+      if (!isCommitted()) setContentLength(head.size());
+      release();
+    }
+
+    /** Writes out what is held and passes everything after straight through. */
+    synchronized void release() throws IOException {
+      if (head == null) return;
+      ByteArrayOutputStream held = head;
+      head = null;
+      if (held.size() > 0) {
+        ServletOutputStream target = getResponse().getOutputStream();
+        held.writeTo(target);
+        target.flush();
+      }
+    }
+  }
+}
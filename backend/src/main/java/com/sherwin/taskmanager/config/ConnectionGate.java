@@ -0,0 +1,125 @@
+package com.sherwin.taskmanager.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the connection pool. With virtual threads the servlet pool no
+ * longer caps how many requests want a connection at once, so thousands can queue inside the
+ * pool and all time out together. Here at most {@code permits} connections are out at a time,
+ * callers queue in arrival order for up to {@code timeout}, and once {@code maxWaiting} are
+ * already queued further callers fail fast with {@link BusyException} (a 503, see
+ * {@link DatabaseBusyHandler}) instead of adding to the pile-up.
+ */
+public class ConnectionGate extends DelegatingDataSource implements MeterBinder {
+
+  /** The gate's queue is full or the wait timed out; the request should be retried later. */
+  public static class BusyException extends SQLTransientConnectionException {
+    BusyException(String reason) {
+      super(reason);
+    }
+  }
+
+  private final Semaphore permits;
+  private final int maxWaiting;
+  private final long timeoutNanos;
+  private final AtomicInteger waiting = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+
+  public ConnectionGate(DataSource target, int permits, int maxWaiting, Duration timeout) {
+    super(target);
+    this.permits = new Semaphore(permits, true);
+    this.maxWaiting = maxWaiting;
+    this.timeoutNanos = timeout.toNanos();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return gated(super.getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return gated(super.getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("db.gate.waiting", waiting, AtomicInteger::get)
+        .description("Callers queued for a database connection").register(registry);
+    Gauge.builder("db.gate.available", permits, Semaphore::availablePermits)
+        .description("Connections that can be handed out without waiting").register(registry);
+    FunctionCounter.builder("db.gate.rejected", rejected, LongAdder::sum)
+        .description("Connection requests refused by the gate").register(registry);
+  }
+
+  private void acquire() throws SQLException {
+    if (permits.tryAcquire()) return;
+    if (waiting.incrementAndGet() > maxWaiting) {
+      waiting.decrementAndGet();
+      rejected.increment();
+      throw new BusyException("Too many requests waiting for a database connection");
+    }
+    try {
+      if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+        rejected.increment();
+        throw new BusyException("Timed out waiting for a database connection");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException("Interrupted while waiting for a database connection", e);
+    } finally {
+      waiting.decrementAndGet();
+    }
+  }
+
+  /** {@code target}, giving its permit back on the first close. */
+  private Connection gated(Connection target) {
+    AtomicBoolean closed = new AtomicBoolean();
+    return (Connection) Proxy.newProxyInstance(ConnectionProxy.class.getClassLoader(),
+        new Class<?>[] {ConnectionProxy.class},
+        (proxy, method, args) -> switch (method.getName()) {
+          case "getTargetConnection" -> target;
+          case "equals" -> proxy == args[0];
+          case "hashCode" -> System.identityHashCode(proxy);
+          default -> {
+            try {
+              yield method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+              throw e.getTargetException();
+            } finally {
+              if (method.getName().equals("close") && closed.compareAndSet(false, true)) permits.release();
+            }
+          }
+        });
+  }
+}
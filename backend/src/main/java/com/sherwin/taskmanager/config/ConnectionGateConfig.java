@@ -0,0 +1,53 @@
+package com.sherwin.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Puts a {@link ConnectionGate} in front of the application's DataSource (the Hikari pool, or
+ * the replica-routing proxy) when {@code app.datasource.gate.enabled}; on by default in the
+ * {@code vthreads} profile. Permits default to the primary pool's maximum size.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.gate.enabled", havingValue = "true")
+public class ConnectionGateConfig {
+
+  @Bean
+  static BeanPostProcessor connectionGatePostProcessor(Environment env) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String name) {
+        if (!"dataSource".equals(name) || !(bean instanceof DataSource ds)) return bean;
+        int permits = env.getProperty("app.datasource.gate.permits", Integer.class, 0);
+        return new ConnectionGate(ds,
+            permits > 0 ? permits : poolSize(ds),
+            env.getProperty("app.datasource.gate.max-waiting", Integer.class, 1000),
+            env.getProperty("app.datasource.gate.timeout", Duration.class, Duration.ofSeconds(5)));
+      }
+    };
+  }
+
+  @Bean
+  MeterBinder connectionGateMetrics(DataSource dataSource) {
+    return registry -> {
+      if (dataSource instanceof ConnectionGate gate) gate.bindTo(registry);
+    };
+  }
+
+  private static int poolSize(DataSource ds) {
+    try {
+      return ds.isWrapperFor(HikariDataSource.class) ? ds.unwrap(HikariDataSource.class).getMaximumPoolSize() : 10;
+    } catch (SQLException e) {
+      return 10;
+    }
+  }
+}
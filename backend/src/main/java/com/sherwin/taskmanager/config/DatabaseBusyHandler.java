@@ -0,0 +1,26 @@
+package com.sherwin.taskmanager.config;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * No connection could be had: the {@link ConnectionGate} turned the request away, or the pool
+ * timed out. Answered like a throttled login, 503 with a Retry-After, rather than a 500.
+ */
+@RestControllerAdvice
+public class DatabaseBusyHandler {
+
+  @ExceptionHandler({CannotCreateTransactionException.class, CannotGetJdbcConnectionException.class,
+      DataAccessResourceFailureException.class})
+  public ResponseEntity<Void> busy() {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .build();
+  }
+}
@@ -0,0 +1,240 @@
+package com.sherwin.taskmanager.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Honors an {@code Idempotency-Key} header on every mutation under {@code /api/}: the first
+ * request with a key runs and its response is kept; a retry with the same key, from the same
+ * user, to the same method and path, gets that response back (marked
+ * {@code Idempotent-Replayed: true}) without running again. A retry that arrives while the
+ * first is still running gets 409 with Retry-After, and one with a different body (or query)
+ * than the first gets 422: the key was reused for another request. Responses that say "try
+ * again" (409, 429, 5xx) are not kept, nor is anything when the handler throws, so those
+ * retries do run. Only the headers the handlers set are kept ({@link #STORED}); CORS and the
+ * like are added again by the filters on the retry's own way through.
+ * <p>
+ * Responses live in a Caffeine cache bounded by {@code app.idempotency.max-size} bytes of body
+ * and expire {@code app.idempotency.ttl} after they were stored. The cache is per node: a
+ * retry that lands on another node runs again. Sits in the security chain after
+ * {@code RateLimitFilter}, so the user is known and a retry storm is still rate limited.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED = "Idempotent-Replayed";
+
+  private static final Set<String> SAFE = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+  /** Response headers replayed besides the content type. */
+  private static final List<String> STORED = List.of(HttpHeaders.LOCATION, HttpHeaders.ETAG, HttpHeaders.RETRY_AFTER);
+
+  /**
+   * A finished response and the SHA-256 of the request it answered; {@link #IN_FLIGHT} holds
+   * the key while the first request runs.
+   */
+  private record Stored(byte[] request, int status, String contentType, Map<String, List<String>> headers, byte[] body) {}
+
+  private static final Stored IN_FLIGHT = new Stored(new byte[0], 0, null, Map.of(), new byte[0]);
+
+  private final boolean enabled;
+  private final Cache<String, Stored> responses;
+  private final Counter replayed;
+  private final Counter conflicts;
+  private final Counter mismatches;
+
+  public IdempotencyFilter(@Value("${app.idempotency.enabled:true}") boolean enabled,
+                           @Value("${app.idempotency.ttl:PT1H}") Duration ttl,
+                           @Value("${app.idempotency.max-size:64MB}") DataSize maxSize,
+                           MeterRegistry meters) {
+    this.enabled = enabled;
+    this.responses = Caffeine.newBuilder()
+        .expireAfterWrite(ttl)
+        .maximumWeight(maxSize.toBytes())
+        .weigher((String key, Stored s) -> key.length() + s.body().length)
+        .build();
+    this.replayed = Counter.builder("idempotency.replayed")
+        .description("Retried mutations answered from the stored response").register(meters);
+    this.conflicts = Counter.builder("idempotency.conflicts")
+        .description("Retries refused with 409 while the first request was still running").register(meters);
+    this.mismatches = Counter.builder("idempotency.mismatches")
+        .description("Requests refused with 422 for reusing a key with another body").register(meters);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest req) {
+    return !enabled
+        || req.getHeader(HEADER) == null
+        || SAFE.contains(req.getMethod())
+        || !req.getRequestURI().startsWith("/api/")
+        || req.getRequestURI().startsWith("/api/auth/");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+      throws ServletException, IOException {
+    String key = client(req) + ' ' + req.getMethod() + ' ' + req.getRequestURI() + ' ' + req.getHeader(HEADER);
+    Stored prior = responses.asMap().putIfAbsent(key, IN_FLIGHT);
+    if (prior == IN_FLIGHT) {
+      conflicts.increment();
+      res.setStatus(HttpStatus.CONFLICT.value());
+      res.setHeader(HttpHeaders.RETRY_AFTER, "1");
+      return;
+    }
+    if (prior != null) {
+      if (!MessageDigest.isEqual(prior.request(), new Fingerprinted(req).fingerprint())) {
+        mismatches.increment();
+        res.setStatus(HttpStatus.UNPROCESSABLE_ENTITY.value());
+        return;
+      }
+      replayed.increment();
+      replay(prior, res);
+      return;
+    }
+
+    Fingerprinted fingerprinted = new Fingerprinted(req);
+    ContentCachingResponseWrapper captured = new ContentCachingResponseWrapper(res);
+    boolean stored = false;
+    try {
+      chain.doFilter(fingerprinted, captured);
+      if (keep(captured.getStatus()) && !req.isAsyncStarted()) {
+        responses.put(key, store(fingerprinted.fingerprint(), captured));
+        stored = true;
+      }
+    } finally {
+      if (!stored) responses.asMap().remove(key, IN_FLIGHT);
+      captured.copyBodyToResponse();
+    }
+  }
+
+  private static boolean keep(int status) {
+    return status < 500 && status != HttpStatus.CONFLICT.value() && status != HttpStatus.TOO_MANY_REQUESTS.value();
+  }
+
+  private static Stored store(byte[] request, ContentCachingResponseWrapper res) {
+    Map<String, List<String>> headers = new LinkedHashMap<>();
+    for (String name : STORED) {
+      if (res.containsHeader(name)) headers.put(name, List.copyOf(res.getHeaders(name)));
+    }
+    return new Stored(request, res.getStatus(), res.getContentType(), headers, res.getContentAsByteArray());
+  }
+
+  private static void replay(Stored s, HttpServletResponse res) throws IOException {
+    res.setStatus(s.status());
+    s.headers().forEach((name, values) -> values.forEach(v -> res.addHeader(name, v)));
+    res.setHeader(REPLAYED, "true");
+    if (s.contentType() != null) res.setContentType(s.contentType());
+    res.setContentLength(s.body().length);
+    res.getOutputStream().write(s.body());
+  }
+
+  /** Hashes the body as the handler reads it, without buffering it: imports stream large bodies. */
+  private static final class Fingerprinted extends HttpServletRequestWrapper {
+
+    private final MessageDigest digest;
+    private ServletInputStream in;
+    private BufferedReader reader;
+
+    Fingerprinted(HttpServletRequest req) {
+      super(req);
+      try {
+        this.digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      if (in == null) {
+        ServletInputStream raw = super.getInputStream();
+        in = new ServletInputStream() {
+          @Override
+          public int read() throws IOException {
+            int b = raw.read();
+            if (b >= 0) digest.update((byte) b);
+            return b;
+          }
+
+          @Override
+          public int read(byte[] buf, int off, int len) throws IOException {
+            int n = raw.read(buf, off, len);
+            if (n > 0) digest.update(buf, off, n);
+            return n;
+          }
+
+          @Override
+          public boolean isFinished() {
+            return raw.isFinished();
+          }
+
+          @Override
+          public boolean isReady() {
+            return raw.isReady();
+          }
+
+          @Override
+          public void setReadListener(ReadListener listener) {
+            raw.setReadListener(listener);
+          }
+        };
+      }
+      return in;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+      if (reader == null) {
+        String charset = getCharacterEncoding();
+        reader = new BufferedReader(new InputStreamReader(getInputStream(),
+            charset != null ? Charset.forName(charset) : StandardCharsets.ISO_8859_1));
+      }
+      return reader;
+    }
+
+    /** Hash of the query string and the body, reading whatever of the body the handler left. */
+    byte[] fingerprint() throws IOException {
+      getInputStream().transferTo(OutputStream.nullOutputStream());
+      digest.update(String.valueOf(getQueryString()).getBytes(StandardCharsets.UTF_8));
+      return digest.digest();
+    }
+  }
+
+  /** Same key as the rate limiter: the authenticated user, else the remote address. */
+  private static String client(HttpServletRequest req) {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    return auth != null && auth.isAuthenticated() ? auth.getName() : req.getRemoteAddr();
+  }
+}
@@ -0,0 +1,78 @@
+package com.sherwin.taskmanager.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Read-your-writes for replica routing: while a user's mutation runs, and for the next
+ * {@code app.datasource.replica.read-your-writes} after it completes, their requests read from
+ * the primary (see {@link ReplicaRouter}), so a replica that has not caught up cannot hide
+ * their own change. The window starts again when the mutation finishes, so a slow write does
+ * not use it up before its commit even reaches the replicas.
+ * Users are remembered per node; behind a load balancer without sticky sessions a read on
+ * another node may still go to a replica.
+ */
+@Component
+@ConditionalOnProperty(name = "app.datasource.replica.urls")
+public class ReadYourWrites implements AsyncHandlerInterceptor {
+
+  private static final Set<String> MUTATIONS = Set.of("POST", "PUT", "PATCH", "DELETE");
+  private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+  private final Cache<String, Boolean> recentWriters;
+
+  public ReadYourWrites(@Value("${app.datasource.replica.read-your-writes:PT5S}") Duration window,
+                        @Value("${app.datasource.replica.max-writers:100000}") long maxWriters) {
+    this.recentWriters = Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maxWriters).build();
+  }
+
+  /** Whether reads on this thread must go to the primary. */
+  public static boolean isPinned() {
+    return PINNED.get() != null;
+  }
+
+  /** Carries the calling thread's pin over to {@code task}, for bodies streamed on another thread. */
+  static Runnable propagate(Runnable task) {
+    boolean pinned = isPinned();
+    return () -> {
+      if (pinned) PINNED.set(Boolean.TRUE);
+      try {
+        task.run();
+      } finally {
+        PINNED.remove();
+      }
+    };
+  }
+
+  @Override
+  public boolean preHandle(HttpServletRequest req, HttpServletResponse res, Object handler) {
+    Principal user = req.getUserPrincipal();
+    if (user == null) return true;
+    if (MUTATIONS.contains(req.getMethod())) recentWriters.put(user.getName(), Boolean.TRUE);
+    else if (recentWriters.getIfPresent(user.getName()) == null) return true;
+    PINNED.set(Boolean.TRUE);
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(HttpServletRequest req, HttpServletResponse res, Object handler) {
+    PINNED.remove();
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest req, HttpServletResponse res, Object handler, Exception ex) {
+    PINNED.remove();
+    Principal user = req.getUserPrincipal();
+    if (user != null && MUTATIONS.contains(req.getMethod())) recentWriters.put(user.getName(), Boolean.TRUE);
+  }
+}
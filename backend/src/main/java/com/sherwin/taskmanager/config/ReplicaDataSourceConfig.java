@@ -0,0 +1,77 @@
+package com.sherwin.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replicas, enabled by listing them in {@code app.datasource.replica.urls}. The
+ * application's DataSource becomes a {@link LazyConnectionDataSourceProxy}: a transaction only
+ * takes a physical connection at its first statement, after its read-only flag is known, so
+ * {@code @Transactional(readOnly = true)} work (board reads, Spring Data finders) goes through
+ * {@link ReplicaRouter} and everything else, Flyway included, to the primary.
+ * Replicas use the primary's credentials unless {@code app.datasource.replica.username}/
+ * {@code password} are set.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replica.urls")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties props) {
+    return props.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public ReplicaRouter replicaRouter(@Qualifier("primaryDataSource") DataSource primary,
+                                     DataSourceProperties props,
+                                     @Value("${app.datasource.replica.urls}") List<String> urls,
+                                     @Value("${app.datasource.replica.username:}") String username,
+                                     @Value("${app.datasource.replica.password:}") String password,
+                                     @Value("${app.datasource.replica.maximum-pool-size:10}") int poolSize,
+                                     @Value("${app.datasource.replica.connection-timeout:PT1S}") Duration timeout,
+                                     @Value("${app.datasource.replica.retry-after:PT30S}") Duration retryAfter) {
+    List<HikariDataSource> pools = new ArrayList<>(urls.size());
+    for (int i = 0; i < urls.size(); i++) {
+      HikariDataSource pool = new HikariDataSource();
+      pool.setPoolName("replica-" + i);
+      pool.setJdbcUrl(urls.get(i).trim());
+      pool.setUsername(username.isEmpty() ? props.determineUsername() : username);
+      pool.setPassword(username.isEmpty() ? props.determinePassword() : password);
+      pool.setReadOnly(true);
+      pool.setMaximumPoolSize(poolSize);
+      pool.setConnectionTimeout(timeout.toMillis()); // short: a slow replica should fall back, not stall reads
+      pool.setInitializationFailTimeout(-1); // start even if a replica is down
+      pools.add(pool);
+    }
+    return new ReplicaRouter(primary, pools, retryAfter);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaRouter replicas) {
+    LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+    proxy.setReadOnlyDataSource(replicas);
+    return proxy;
+  }
+
+  /** Keeps a read-your-writes window in force for response bodies streamed on the async executor. */
+  @Bean
+  public TaskDecorator readYourWritesPropagation() {
+    return ReadYourWrites::propagate;
+  }
+}
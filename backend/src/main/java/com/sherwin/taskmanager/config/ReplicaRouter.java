@@ -0,0 +1,65 @@
+package com.sherwin.taskmanager.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Where read-only transactions get their connection: the replicas in turn, or the primary
+ * while the caller is inside a read-your-writes window ({@link ReadYourWrites}). A replica
+ * that cannot hand out a connection is skipped for {@code retryAfter} and the read falls back
+ * to the next replica, and finally to the primary.
+ */
+@Slf4j
+public class ReplicaRouter extends AbstractDataSource implements AutoCloseable {
+
+  private record Replica(HikariDataSource pool, AtomicLong downUntil) {}
+
+  private final DataSource primary;
+  private final List<Replica> replicas;
+  private final long retryAfterNanos;
+  private final AtomicInteger next = new AtomicInteger();
+
+  public ReplicaRouter(DataSource primary, List<HikariDataSource> replicas, Duration retryAfter) {
+    this.primary = primary;
+    this.replicas = replicas.stream().map(p -> new Replica(p, new AtomicLong(System.nanoTime()))).toList();
+    this.retryAfterNanos = retryAfter.toNanos();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    if (ReadYourWrites.isPinned() || replicas.isEmpty()) return primary.getConnection();
+    long now = System.nanoTime();
+    int start = next.getAndIncrement();
+    for (int i = 0; i < replicas.size(); i++) {
+      Replica r = replicas.get(Math.floorMod(start + i, replicas.size()));
+      if (now - r.downUntil().get() < 0) continue;
+      try {
+        return r.pool().getConnection();
+      } catch (SQLException e) {
+        r.downUntil().set(now + retryAfterNanos);
+        log.warn("Replica {} unavailable, reading from the primary for now: {}", r.pool().getPoolName(), e.getMessage());
+      }
+    }
+    return primary.getConnection();
+  }
+
+  /** Explicit credentials are the primary's: the replica pools log in with app.datasource.replica.*. */
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return primary.getConnection(username, password);
+  }
+
+  @Override
+  public void close() {
+    replicas.forEach(r -> r.pool().close());
+  }
+}
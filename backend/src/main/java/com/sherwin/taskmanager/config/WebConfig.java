@@ -1,11 +1,17 @@
 package com.sherwin.taskmanager.config;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
+  private final ObjectProvider<ReadYourWrites> readYourWrites; // only with read replicas
+
   @Override
   public void addCorsMappings(CorsRegistry registry) {
     registry.addMapping("/**")
@@ -16,4 +22,9 @@ public class WebConfig implements WebMvcConfigurer {
         .allowedMethods("GET","POST","PUT","PATCH","DELETE","OPTIONS")
         .allowedHeaders("*");
   }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    readYourWrites.ifAvailable(i -> registry.addInterceptor(i).addPathPatterns("/api/**"));
+  }
 }
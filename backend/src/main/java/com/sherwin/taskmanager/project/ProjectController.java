@@ -0,0 +1,46 @@
+package com.sherwin.taskmanager.project;
+
+import com.sherwin.taskmanager.board.Boards;
+import com.sherwin.taskmanager.project.dto.CreateProjectRequest;
+import com.sherwin.taskmanager.project.dto.ProjectSummary;
+import com.sherwin.taskmanager.user.User;
+import com.sherwin.taskmanager.user.UserRepository;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+/** Projects of the signed-in user; each one has its own board at {@code /api/projects/{id}/tasks}. */
+@RestController
+@RequestMapping("/api/projects")
+@RequiredArgsConstructor
+public class ProjectController {
+
+  private final ProjectRepository projects;
+  private final ProjectService service;
+  private final UserRepository users;
+  private final Boards boards;
+
+  @GetMapping
+  @Transactional(readOnly = true)
+  public List<ProjectSummary> list(Authentication auth) {
+    return projects.findAllByOwnerEmailOrderByIdAsc(auth.getName()).stream().map(this::summary).toList();
+  }
+
+  @PostMapping
+  public ProjectSummary create(@RequestBody @Valid CreateProjectRequest body, Authentication auth) {
+    User owner = users.findByEmail(auth.getName())
+        .orElseThrow(() -> new ResponseStatusException(UNAUTHORIZED));
+    return summary(service.create(body.name(), body.description(), owner, body.columns()));
+  }
+
+  private ProjectSummary summary(Project p) {
+    return new ProjectSummary(p.getId(), p.getName(), p.getDescription(), boards.columns(p.getId()));
+  }
+}
@@ -1,5 +1,20 @@
 package com.sherwin.taskmanager.project;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProjectRepository extends JpaRepository<Project, Long> { }
+import java.util.List;
+import java.util.Optional;
+
+public interface ProjectRepository extends JpaRepository<Project, Long> {
+  Optional<Project> findFirstByOrderByIdAsc();
+
+  List<Project> findAllByOwnerEmailOrderByIdAsc(String email);
+
+  @Query("select p.owner.email from Project p where p.id = :id")
+  Optional<String> findOwnerEmailById(@Param("id") long id);
+
+  @Query("select p.id from Project p order by p.id")
+  List<Long> findAllIds();
+}
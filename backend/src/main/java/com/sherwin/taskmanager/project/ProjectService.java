@@ -0,0 +1,46 @@
+package com.sherwin.taskmanager.project;
+
+import com.sherwin.taskmanager.board.BoardColumn;
+import com.sherwin.taskmanager.board.BoardColumnRepository;
+import com.sherwin.taskmanager.user.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class ProjectService {
+
+  public static final List<String> DEFAULT_COLUMNS = List.of("Todo", "In Progress", "Done");
+
+  private final ProjectRepository projects;
+  private final BoardColumnRepository columns;
+
+  /** A project and its board columns, left to right in the order given. */
+  @Transactional
+  public Project create(String name, String description, User owner, List<String> columnNames) {
+    List<String> names = List.copyOf(new LinkedHashSet<>(
+        columnNames == null || columnNames.isEmpty() ? DEFAULT_COLUMNS : columnNames));
+
+    Project p = new Project();
+    p.setName(name);
+    p.setDescription(description);
+    p.setOwner(owner);
+    projects.save(p);
+
+    List<BoardColumn> board = new ArrayList<>(names.size());
+    for (int i = 0; i < names.size(); i++) {
+      BoardColumn c = new BoardColumn();
+      c.setProject(p);
+      c.setName(names.get(i));
+      c.setPosition(i);
+      board.add(c);
+    }
+    columns.saveAll(board);
+    return p;
+  }
+}
@@ -0,0 +1,12 @@
+package com.sherwin.taskmanager.project.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+import java.util.List;
+
+/** {@code columns} defaults to Todo / In Progress / Done. */
+public record CreateProjectRequest(
+    @NotBlank String name,
+    String description,
+    List<@NotBlank String> columns
+) {}
@@ -0,0 +1,5 @@
+package com.sherwin.taskmanager.project.dto;
+
+import java.util.List;
+
+public record ProjectSummary(Long id, String name, String description, List<String> columns) {}
@@ -6,21 +6,25 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-  private final JwtService jwtService;                 // your util with extractUsername(), isTokenValid()
-  private final UserDetailsService userDetailsService; // AppUserDetailsService
+  private final JwtService jwtService;
+  private final UserDetailsService userDetailsService; // only for legacy tokens without a role claim
 
   @Override
   protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
@@ -32,25 +36,27 @@ public class JwtAuthFilter extends OncePerRequestFilter {
       return;
     }
 
-    final String jwt = authHeader.substring(7);
-    final String username = jwtService.extractUsername(jwt); // typically from "sub"
-
-    if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-
-      if (jwtService.isTokenValid(jwt, userDetails)) {
-        // IMPORTANT: pass authorities from userDetails
+    if (SecurityContextHolder.getContext().getAuthentication() == null) {
+      // one verify-and-decode; principal and authorities come straight from the claims
+      jwtService.verify(authHeader.substring(7)).ifPresent(token -> {
+        var authorities = authorities(token);
+        if (authorities == null) return;
         UsernamePasswordAuthenticationToken authToken =
-            new UsernamePasswordAuthenticationToken(
-              userDetails,
-              null,
-              userDetails.getAuthorities()   // <- without this you'll get 403s
-            );
+            new UsernamePasswordAuthenticationToken(token.subject(), null, authorities);
         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(req));
         SecurityContextHolder.getContext().setAuthentication(authToken);
-      }
+      });
     }
 
     chain.doFilter(req, res);
   }
+
+  private Collection<? extends GrantedAuthority> authorities(VerifiedToken token) {
+    if (token.role() != null) return List.of(new SimpleGrantedAuthority("ROLE_" + token.role()));
+    try {
+      return userDetailsService.loadUserByUsername(token.subject()).getAuthorities();
+    } catch (UsernameNotFoundException e) {
+      return null; // user gone since the token was issued
+    }
+  }
 }
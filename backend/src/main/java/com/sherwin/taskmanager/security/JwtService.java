@@ -1,66 +1,145 @@
 package com.sherwin.taskmanager.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class JwtService {
 
+  static final String ROLE_CLAIM = "role";
+
   private final SecretKey key;
+  private final JwtParser parser;
+
+  // verified tokens by SHA-256 of the token, each entry dropped when its token expires
+  private final Cache<String, VerifiedToken> verified;
+
+  private final Timer verifyHit;
+  private final Timer verifyMiss;
 
-  public JwtService(@Value("${app.jwt.secret:dev-secret-change-me}") String secret) {
+  public JwtService(@Value("${app.jwt.secret:dev-secret-change-me}") String secret,
+                    @Value("${app.jwt.cache-size:10000}") long cacheSize,
+                    MeterRegistry meters) {
     if (secret.length() < 32) {
       secret = (secret + "00000000000000000000000000000000").substring(0, 32);
     }
     this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+    this.verified = Caffeine.newBuilder()
+        .maximumSize(cacheSize)
+        .expireAfter(new UntilTokenExpiry())
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meters, verified, "jwt.verified");
+    this.verifyHit = Timer.builder("auth.jwt.verify").tag("cache", "hit").register(meters);
+    this.verifyMiss = Timer.builder("auth.jwt.verify").tag("cache", "miss").register(meters);
   }
 
-  /** For AuthService */
-  public String generate(String subject) {
+  /** For AuthService: the role travels in the token so requests need no user lookup. */
+  public String generate(String subject, String role) {
     long now = System.currentTimeMillis();
     return Jwts.builder()
         .setSubject(subject)
+        .claim(ROLE_CLAIM, role)
         .setIssuedAt(new Date(now))
         .setExpiration(new Date(now + 1000L * 60 * 60 * 8)) // 8h
         .signWith(key, SignatureAlgorithm.HS256)
         .compact();
   }
 
+  /** Token without a role claim; authorities are then looked up per request. */
+  public String generate(String subject) {
+    return generate(subject, null);
+  }
+
   /** Optional alias if other code uses this name */
   public String generateToken(String subject) {
     return generate(subject);
   }
 
+  /**
+   * Verifies signature and expiry once and returns every claim the filter needs. Hot tokens
+   * are answered from the cache without repeating the HMAC and JSON work.
+   */
+  public Optional<VerifiedToken> verify(String token) {
+    long start = System.nanoTime();
+    String hash = sha256(token);
+    VerifiedToken hit = verified.getIfPresent(hash);
+    if (hit != null) {
+      verifyHit.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return hit.expiresAt().isAfter(Instant.now()) ? Optional.of(hit) : Optional.empty();
+    }
+    try {
+      Claims claims = parser.parseClaimsJws(token).getBody(); // throws on bad signature or expiry
+      if (claims.getSubject() == null || claims.getExpiration() == null) return Optional.empty();
+      VerifiedToken v = new VerifiedToken(
+          claims.getSubject(),
+          claims.get(ROLE_CLAIM, String.class),
+          claims.getExpiration().toInstant());
+      verified.put(hash, v);
+      return Optional.of(v);
+    } catch (JwtException | IllegalArgumentException e) {
+      return Optional.empty();
+    } finally {
+      verifyMiss.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
   public String extractUsername(String token) {
-    return extractClaim(token, Claims::getSubject);
+    return verify(token).map(VerifiedToken::subject).orElse(null);
   }
 
   public boolean isTokenValid(String token, UserDetails user) {
-    String username = extractUsername(token);
-    return username != null && username.equals(user.getUsername()) && !isTokenExpired(token);
+    return verify(token).map(v -> v.subject().equals(user.getUsername())).orElse(false);
   }
 
-  private boolean isTokenExpired(String token) {
-    Date exp = extractClaim(token, Claims::getExpiration);
-    return exp.before(new Date());
+  private static String sha256(String token) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+      return Base64.getEncoder().encodeToString(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
-  private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-    Claims claims = Jwts.parserBuilder()
-        .setSigningKey(key)
-        .build()
-        .parseClaimsJws(token)
-        .getBody();
-    return resolver.apply(claims);
+  private static final class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+    @Override
+    public long expireAfterCreate(String key, VerifiedToken v, long currentTime) {
+      return Math.max(0, Duration.between(Instant.now(), v.expiresAt()).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, VerifiedToken v, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, v, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, VerifiedToken v, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
   }
 }
@@ -0,0 +1,93 @@
+package com.sherwin.taskmanager.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-client rate limits, in the security chain right after {@link JwtAuthFilter} so the client
+ * is the authenticated user (logins, which have none yet, are keyed by remote address). Each
+ * endpoint class has its own {@link RateLimiter}, configured by
+ * {@code app.ratelimit.<read|write|login>.per-second} and {@code .burst}: a runaway drag loop
+ * hits the write limit without costing the same user their reads. Refused requests get 429
+ * with Retry-After; meters are {@code ratelimit.allowed} and {@code ratelimit.throttled}, by class.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  enum Kind { READ, WRITE, LOGIN }
+
+  private final boolean enabled;
+  private final Map<Kind, RateLimiter> limiters = new EnumMap<>(Kind.class);
+  private final Map<Kind, Counter> allowed = new EnumMap<>(Kind.class);
+  private final Map<Kind, Counter> throttled = new EnumMap<>(Kind.class);
+
+  public RateLimitFilter(@Value("${app.ratelimit.enabled:true}") boolean enabled,
+                         @Value("${app.ratelimit.max-clients:100000}") long maxClients,
+                         Environment env,
+                         MeterRegistry meters) {
+    this.enabled = enabled;
+    for (Kind kind : Kind.values()) {
+      String name = kind.name().toLowerCase(Locale.ROOT);
+      double perSecond = env.getRequiredProperty("app.ratelimit." + name + ".per-second", Double.class);
+      int burst = env.getRequiredProperty("app.ratelimit." + name + ".burst", Integer.class);
+      limiters.put(kind, new RateLimiter(perSecond, burst, maxClients));
+      allowed.put(kind, Counter.builder("ratelimit.allowed").tag("class", name)
+          .description("Requests admitted by the rate limiter").register(meters));
+      throttled.put(kind, Counter.builder("ratelimit.throttled").tag("class", name)
+          .description("Requests refused with 429").register(meters));
+    }
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest req) {
+    return !enabled || !req.getRequestURI().startsWith("/api/") || "OPTIONS".equals(req.getMethod());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest req, HttpServletResponse res, FilterChain chain)
+      throws ServletException, IOException {
+    Kind kind = kind(req);
+    long wait = limiters.get(kind).tryAcquire(client(req, kind));
+    if (wait == 0) {
+      allowed.get(kind).increment();
+      chain.doFilter(req, res);
+      return;
+    }
+    throttled.get(kind).increment();
+    res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+    long seconds = (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1); // rounded up
+    res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+  }
+
+  private static Kind kind(HttpServletRequest req) {
+    if (req.getRequestURI().startsWith("/api/auth/")) return Kind.LOGIN;
+    return switch (req.getMethod()) {
+      case "GET", "HEAD" -> Kind.READ;
+      default -> Kind.WRITE;
+    };
+  }
+
+  private static String client(HttpServletRequest req, Kind kind) {
+    Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    if (kind == Kind.LOGIN || auth == null || !auth.isAuthenticated()) return req.getRemoteAddr();
+    return auth.getName();
+  }
+}
@@ -0,0 +1,49 @@
+package com.sherwin.taskmanager.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Token buckets keyed by client: {@code perSecond} sustained, {@code burst} at once. Each bucket
+ * is one AtomicLong holding the time the bucket would be full again (GCRA, the "virtual
+ * scheduling" form of a token bucket): admitting a request is a single compare-and-set that
+ * moves that time forward by one interval; it is refused while the time is more than a burst
+ * ahead of now. No locks, no refill thread, nothing allocated for a known client.
+ * Idle buckets are dropped after they would have refilled anyway.
+ */
+public class RateLimiter {
+
+  private final long intervalNanos;
+  private final long toleranceNanos;
+  private final long origin = System.nanoTime();
+  private final Cache<String, AtomicLong> buckets;
+  private final Function<String, AtomicLong> newBucket = k -> new AtomicLong();
+
+  public RateLimiter(double perSecond, int burst, long maxClients) {
+    if (perSecond <= 0 || burst < 1) throw new IllegalArgumentException("Rate and burst must be positive");
+    this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / perSecond));
+    this.toleranceNanos = intervalNanos * (burst - 1);
+    this.buckets = Caffeine.newBuilder()
+        .expireAfterAccess(Duration.ofNanos(intervalNanos * burst).plusSeconds(1))
+        .maximumSize(maxClients)
+        .build();
+  }
+
+  /** 0 if the request is admitted, otherwise how long until {@code client} may send the next one, in nanoseconds. */
+  public long tryAcquire(String client) {
+    AtomicLong full = buckets.get(client, newBucket);
+    long now = System.nanoTime() - origin;
+    for (;;) {
+      long t = full.get();
+      long start = Math.max(t, now);
+      long ahead = start - now;
+      if (ahead > toleranceNanos) return ahead - toleranceNanos;
+      if (full.compareAndSet(t, start + intervalNanos)) return 0;
+    }
+  }
+}
@@ -2,6 +2,7 @@
 package com.sherwin.taskmanager.security;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationProvider;
@@ -16,9 +17,12 @@ public class SecurityBeans {
 
   private final UserDetailsService userDetailsService;
 
+  @Value("${app.security.bcrypt-strength:10}")
+  private int bcryptStrength; // existing hashes are upgraded on login, see PasswordVerifier
+
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new BCryptPasswordEncoder(bcryptStrength);
   }
 
   @Bean
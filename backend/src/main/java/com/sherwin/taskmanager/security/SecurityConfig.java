@@ -1,6 +1,10 @@
 package com.sherwin.taskmanager.security;
 
+import com.sherwin.taskmanager.config.IdempotencyFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -22,6 +26,8 @@ import java.util.List;
 public class SecurityConfig {
 
   private final JwtAuthFilter jwtAuthFilter;
+  private final RateLimitFilter rateLimitFilter;
+  private final IdempotencyFilter idempotencyFilter;
 
   @Bean
   public SecurityFilterChain filterChain(HttpSecurity http,
@@ -32,12 +38,16 @@ public class SecurityConfig {
       .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
       .authorizeHttpRequests(auth -> auth
         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()  
+        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // streamed bodies: request was already authorized
         .requestMatchers("/api/auth/**").permitAll()
-        .requestMatchers("/actuator/**").permitAll()
+        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll() // load balancer probes
+        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN") // metrics name internals
         .requestMatchers("/api/**").authenticated()
       )
       .authenticationProvider(authProvider)
-      .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+      .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+      .addFilterAfter(rateLimitFilter, JwtAuthFilter.class) // keyed by the user JwtAuthFilter set
+      .addFilterAfter(idempotencyFilter, RateLimitFilter.class); // retries are rate limited too
 
     return http.build();
   }
@@ -48,7 +58,9 @@ public class SecurityConfig {
     CorsConfiguration cfg = new CorsConfiguration();
     cfg.setAllowedOrigins(List.of("http://localhost:5173"));
     cfg.setAllowedMethods(List.of("GET","POST","PUT","DELETE","PATCH","OPTIONS"));
-    cfg.setAllowedHeaders(List.of("Authorization","Content-Type"));
+    cfg.setAllowedHeaders(List.of("Authorization","Content-Type","If-None-Match","Last-Event-ID",
+        IdempotencyFilter.HEADER));
+    cfg.setExposedHeaders(List.of("ETag", "Retry-After", IdempotencyFilter.REPLAYED));
     cfg.setAllowCredentials(true);
 
     UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
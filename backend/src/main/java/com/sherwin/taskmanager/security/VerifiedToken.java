@@ -0,0 +1,6 @@
+package com.sherwin.taskmanager.security;
+
+import java.time.Instant;
+
+/** Claims of a token whose signature and expiry have been checked; {@code role} is null for legacy tokens. */
+public record VerifiedToken(String subject, String role, Instant expiresAt) {}
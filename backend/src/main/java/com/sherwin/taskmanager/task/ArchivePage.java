@@ -0,0 +1,17 @@
+package com.sherwin.taskmanager.task;
+
+import java.time.Instant;
+import java.util.List;
+
+/** One keyset page of a project's archive; {@code next} is the cursor for the following page, or null at the end. */
+public record ArchivePage(List<Card> tasks, String next) {
+
+  /** {@code status} is the column the card was archived from, where a restore puts it back by default. */
+  public record Card(long id, String title, String status, Instant completedAt, Instant archivedAt) {}
+
+  static ArchivePage of(List<Card> tasks, int limit) {
+    if (tasks.size() < limit) return new ArchivePage(tasks, null);
+    Card last = tasks.get(tasks.size() - 1);
+    return new ArchivePage(tasks, last.completedAt() + "_" + last.id());
+  }
+}
@@ -0,0 +1,38 @@
+package com.sherwin.taskmanager.task;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A card {@link TaskArchive} took off the board. It keeps the task's id, so a restored card
+ * comes back as itself. Plain id columns, like {@link ChangeLogEntry}: the row does not hold
+ * the project or column in place.
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Table(name = "task_archive", indexes = {
+    // pages are newest-completed first within one project
+    @Index(name = "ix_task_archive_page", columnList = "project_id, completed_at, id")
+})
+public class ArchivedTask {
+  @Id
+  private Long id;
+
+  @Column(name = "project_id", nullable = false)
+  private long projectId;
+
+  @Column(nullable = false)
+  private long columnId; // the column it was archived from, where a restore puts it back
+
+  @Column(nullable = false)
+  private String title;
+
+  @Column(name = "completed_at", nullable = false)
+  private Instant completedAt; // when it entered that column
+
+  @Column(nullable = false)
+  private Instant archivedAt;
+}
@@ -0,0 +1,30 @@
+package com.sherwin.taskmanager.task;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+  // ---- keyset pages of one project, newest completed first: (completedAt, id) of the last row seen is the cursor ----
+  @Query("""
+      select a from ArchivedTask a
+      where a.projectId = :projectId
+      order by a.completedAt desc, a.id desc
+      """)
+  List<ArchivedTask> findPage(@Param("projectId") long projectId, Limit limit);
+
+  @Query("""
+      select a from ArchivedTask a
+      where a.projectId = :projectId
+        and (a.completedAt < :completedAt or (a.completedAt = :completedAt and a.id < :id))
+      order by a.completedAt desc, a.id desc
+      """)
+  List<ArchivedTask> findPageAfter(@Param("projectId") long projectId,
+                                   @Param("completedAt") Instant completedAt,
+                                   @Param("id") long id,
+                                   Limit limit);
+}
@@ -0,0 +1,31 @@
+package com.sherwin.taskmanager.task;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The board grouped by column, for {@code GET /api/tasks/columns}: each column's name is sent
+ * once rather than as the {@code status} of every card. Columns are in board order, empty ones
+ * included.
+ */
+public record BoardColumns(List<Column> columns) {
+
+  public record Column(String status, List<Card> tasks) {}
+
+  public record Card(long id, String title, Long position) {}
+
+  /** Groups {@code board}, which is ordered column by column as {@link BoardEngine#board} returns it. */
+  static BoardColumns of(List<String> columns, List<TaskView> board) {
+    List<Column> out = new ArrayList<>(columns.size());
+    int i = 0;
+    for (String status : columns) {
+      List<Card> cards = new ArrayList<>();
+      for (; i < board.size() && board.get(i).status().equals(status); i++) {
+        TaskView t = board.get(i);
+        cards.add(new Card(t.id(), t.title(), t.position()));
+      }
+      out.add(new Column(status, cards));
+    }
+    return new BoardColumns(out);
+  }
+}
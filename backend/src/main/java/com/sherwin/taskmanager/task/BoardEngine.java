@@ -0,0 +1,61 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.task.dto.BatchResult;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Where a project's board lives: its reads and every mutation behind {@code TaskController}.
+ * {@link TaskService} reads and writes through JPA (the default); with
+ * {@code app.board.engine=memory}, {@link MemoryBoardEngine} serves boards from memory and
+ * persists them write-behind. Unknown columns raise {@link IllegalArgumentException},
+ * unknown projects and tasks {@link java.util.NoSuchElementException}.
+ */
+public interface BoardEngine {
+
+  // ---- reads ----
+  /** The whole board, column-wise in the project's column order. */
+  List<TaskView> board(long projectId);
+
+  /** Writes {@link #board(long)} as a JSON array to {@code out}. */
+  void writeBoard(long projectId, OutputStream out) throws IOException;
+
+  /** Passes every card to {@code row} in {@link #board(long)} order, without holding the whole board. */
+  void forEach(long projectId, Consumer<TaskView> row);
+
+  /** Up to {@code limit} cards of a column after the ({@code afterPosition}, {@code afterId}) cursor, if any. */
+  ColumnPage column(long projectId, String status, Long afterPosition, Long afterId, int limit);
+
+  // ---- writes ----
+  TaskView create(long projectId, String title, String status);
+
+  void move(long projectId, long id, String to);
+
+  void reorder(long projectId, long id, String toStatus, int toIndex);
+
+  TaskView update(long projectId, long id, String title, String status);
+
+  void delete(long projectId, long id);
+
+  List<BatchResult> apply(long projectId, List<BatchOperation> ops);
+
+  // ---- archive (see TaskArchive) ----
+  /**
+   * Takes the cards {@code ids} of column {@code status} off the board, skipping any that are
+   * no longer in it, and returns them. {@code archived} gets them first, while the removal can
+   * still be undone: it runs in the removal's transaction, if there is one.
+   */
+  List<TaskView> archive(long projectId, String status, Collection<Long> ids, Consumer<List<TaskView>> archived);
+
+  /**
+   * Puts an archived card back at the bottom of {@code status} under its old id; a card already
+   * on the board is left as it is. {@code unarchive} runs first, in the restore's transaction if
+   * there is one, so the card is never both on the board and in the archive.
+   */
+  TaskView restore(long projectId, long id, String title, String status, Runnable unarchive);
+}
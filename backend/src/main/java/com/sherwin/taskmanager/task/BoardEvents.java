@@ -0,0 +1,310 @@
+package com.sherwin.taskmanager.task;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes committed {@link TaskChange}s to the Server-Sent Event subscribers of their project's
+ * board. Streams are async servlet responses written with non-blocking I/O, so no subscriber
+ * holds a thread: an event is written by whichever thread offers it, for as long as the socket
+ * takes it, and the rest by the container when the socket drains. Each subscriber has its own
+ * queue of at most {@code app.events.queue-size} events: a client that does not read is
+ * disconnected once it overflows, to resume with {@code Last-Event-ID}. The last
+ * {@code app.events.buffer-size} events are kept in a ring so such a reconnect gets what it
+ * missed; a client that fell further behind, or whose id is from before a restart, gets a
+ * {@code reset} event and should reload the board.
+ */
+@Slf4j
+@Component
+public class BoardEvents {
+
+  record Event(long id, long projectId, byte[] frame) {}
+
+  private static final byte[] PING = ":ping\n\n".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] RESET = "event:reset\ndata:{}\n\n".getBytes(StandardCharsets.UTF_8);
+
+  private final Event[] ring;
+  private final Duration timeout;
+  private final int queueSize;
+  private final ObjectMapper json;
+  // ids continue from the boot time, so every id of an earlier process is below this one's
+  private final long base = System.currentTimeMillis() * 1000;
+  private long lastId = base; // guarded by ring
+  private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+  public BoardEvents(@Value("${app.events.buffer-size:1024}") int bufferSize,
+                     @Value("${app.events.timeout:PT30M}") Duration timeout,
+                     @Value("${app.events.queue-size:256}") int queueSize,
+                     ObjectMapper json) {
+    this.ring = new Event[bufferSize];
+    this.timeout = timeout;
+    this.queueSize = queueSize;
+    this.json = json;
+  }
+
+  /**
+   * Starts the request's event stream. Event ids are global, so a reconnect to any board
+   * resumes from its own Last-Event-ID.
+   */
+  public void subscribe(long projectId, Long lastEventId, HttpServletRequest request) throws IOException {
+    AsyncContext async = request.startAsync();
+    async.setTimeout(timeout.toMillis());
+    HttpServletResponse response = (HttpServletResponse) async.getResponse();
+    response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+    Subscriber sub = new Subscriber(projectId, async, response.getOutputStream());
+    async.addListener(sub);
+    sub.out.setWriteListener(sub);
+    // under the ring lock, so no event is both replayed and sent live, or neither
+    synchronized (ring) {
+      subscribers.add(sub);
+      if (lastEventId != null) replay(sub, lastEventId);
+    }
+    sub.write();
+  }
+
+  /**
+   * Queues the event for the board's subscribers under the ring lock, and writes outside it:
+   * one board's sockets do not hold up another board's commits. Each subscriber's queue is FIFO,
+   * so its events still go out in id order.
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  void onChange(TaskChange change) {
+    byte[] data = encode(change);
+    List<Subscriber> queued = new ArrayList<>();
+    synchronized (ring) {
+      long id = ++lastId;
+      Event e = new Event(id, change.projectId(), frame(id, change, data));
+      ring[(int) (id % ring.length)] = e;
+      for (Subscriber s : subscribers) {
+        if (s.projectId == e.projectId()) {
+          s.enqueue(e.frame());
+          queued.add(s);
+        }
+      }
+    }
+    queued.forEach(Subscriber::write);
+  }
+
+  /** Keeps idle connections open through proxies and flushes out dead ones. */
+  @Scheduled(fixedDelayString = "${app.events.heartbeat-ms:25000}")
+  void heartbeat() {
+    for (Subscriber s : subscribers) s.offer(PING);
+  }
+
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  // holds the ring lock; only queues, the caller writes
+  private void replay(Subscriber sub, long after) {
+    long first = Math.max(base + 1, lastId - ring.length + 1);
+    if (after + 1 < first || after > lastId) sub.enqueue(RESET);
+    for (long id = Math.max(after + 1, first); id <= lastId; id++) {
+      Event e = ring[(int) (id % ring.length)];
+      if (e.projectId() == sub.projectId) sub.enqueue(e.frame());
+    }
+  }
+
+  private byte[] encode(TaskChange change) {
+    try {
+      return json.writeValueAsBytes(change);
+    } catch (JsonProcessingException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
+  /** One event as it goes on the wire, built once for every subscriber and for replays. */
+  private static byte[] frame(long id, TaskChange change, byte[] data) {
+    byte[] head = ("id:" + id + "\nevent:" + change.type().name().toLowerCase(Locale.ROOT) + "\ndata:")
+        .getBytes(StandardCharsets.UTF_8);
+    byte[] frame = new byte[head.length + data.length + 2];
+    System.arraycopy(head, 0, frame, 0, head.length);
+    System.arraycopy(data, 0, frame, head.length, data.length);
+    frame[frame.length - 2] = '\n';
+    frame[frame.length - 1] = '\n';
+    return frame;
+  }
+
+  /**
+   * One stream: its pending frames, and which thread is writing them. Whoever offers a frame
+   * writes while the stream is ready; once it is not, the container calls
+   * {@link #onWritePossible()} when the socket drains. Writes happen outside the queue's lock,
+   * as the container holds its own while calling back.
+   */
+  private final class Subscriber implements WriteListener, AsyncListener {
+
+    final long projectId;
+    final AsyncContext async;
+    final ServletOutputStream out;
+    private final Queue<byte[]> pending = new ArrayDeque<>();
+    private boolean writing; // guarded by pending
+    private boolean again; // guarded by pending: asked to write while another thread was
+    private boolean closed; // guarded by pending
+    private boolean unflushed = true; // headers and written frames not flushed yet; by the writer
+
+    Subscriber(long projectId, AsyncContext async, ServletOutputStream out) {
+      this.projectId = projectId;
+      this.async = async;
+      this.out = out;
+    }
+
+    void offer(byte[] frame) {
+      enqueue(frame);
+      write();
+    }
+
+    /** Never blocks: a full queue means the client is not keeping up, and it is dropped. */
+    void enqueue(byte[] frame) {
+      synchronized (pending) {
+        if (closed) return;
+        if (pending.size() >= queueSize) {
+          log.debug("Dropping an SSE subscriber of project {}: {} events behind", projectId, pending.size());
+          closed = true;
+          pending.clear();
+        } else {
+          pending.add(frame);
+        }
+      }
+    }
+
+    @Override
+    public void onWritePossible() {
+      write();
+    }
+
+    void write() {
+      synchronized (pending) {
+        if (writing) {
+          again = true;
+          return;
+        }
+        writing = true;
+      }
+      do {
+        try {
+          drain();
+        } catch (IOException | IllegalStateException gone) {
+          synchronized (pending) {
+            closed = true;
+            pending.clear();
+          }
+        }
+      } while (!release());
+    }
+
+    // the writing thread only; returns when the queue is empty or the stream is not ready
+    private void drain() throws IOException {
+      while (out.isReady()) {
+        byte[] next;
+        synchronized (pending) {
+          if (closed) return;
+          next = pending.poll();
+        }
+        if (next != null) {
+          out.write(next);
+          unflushed = true;
+        } else if (unflushed) {
+          out.flush();
+          unflushed = false;
+        } else {
+          return;
+        }
+      }
+    }
+
+    // ends this writer's turn, unless another write was asked for meanwhile; a closed stream is
+    // completed here, which does not block on the client
+    private boolean release() {
+      synchronized (pending) {
+        if (again && !closed) {
+          again = false;
+          return false;
+        }
+        writing = false;
+        if (!closed) return true;
+      }
+      end();
+      return true;
+    }
+
+    private void end() {
+      if (!subscribers.remove(this)) return;
+      try {
+        async.complete();
+      } catch (IllegalStateException alreadyCompleted) {
+        // the container ended it first
+      }
+    }
+
+    void close() {
+      synchronized (pending) {
+        closed = true;
+        pending.clear();
+      }
+      end();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      close();
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      synchronized (pending) {
+        closed = true;
+        pending.clear();
+      }
+      subscribers.remove(this);
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+  }
+
+  // before the web server's graceful shutdown, which would otherwise wait for the open streams
+  @EventListener(ContextClosedEvent.class)
+  void shutdown() {
+    subscribers.forEach(Subscriber::close);
+  }
+}
@@ -0,0 +1,230 @@
+package com.sherwin.taskmanager.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only redo log of {@link MemoryBoardEngine} writes, one JSON {@link Entry} per line,
+ * split into numbered segment files. A single writer thread drains everything queued since
+ * its last pass, writes it and fsyncs once, so concurrent writers share one fsync (group
+ * commit). {@link #roll()} starts a new segment; once the write-behind has persisted
+ * everything up to a roll, the segments before it are deleted. Segments left over from a
+ * previous process are exposed by {@link #recovered()} for replay.
+ */
+@Slf4j
+class BoardJournal implements AutoCloseable {
+
+  /** Full state of one task after a write (or its deletion): replaying entries is idempotent. */
+  record Entry(long id, boolean deleted, TaskChange.Type type, long projectId, long columnId, long position, String title) {
+
+    static Entry of(TaskChange.Type type, long projectId, long id, long columnId, long position, String title) {
+      return new Entry(id, false, type, projectId, columnId, position, title);
+    }
+
+    static Entry deleted(long projectId, long id) {
+      return new Entry(id, true, TaskChange.Type.DELETED, projectId, 0, 0, null);
+    }
+  }
+
+  private record Queued(long seq, Entry entry) {} // entry == null: roll to a new segment
+
+  private record Segment(Path file, long lastSeq) {}
+
+  private static final String PREFIX = "journal-";
+  private static final String SUFFIX = ".log";
+
+  private final Path dir;
+  private final boolean fsync;
+  private final ObjectMapper json;
+  private final List<Path> recovered;
+  private final BlockingQueue<Queued> queue = new LinkedBlockingQueue<>();
+  private final Deque<Segment> closed = new ConcurrentLinkedDeque<>();
+  private final AtomicLong appended = new AtomicLong();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition synced = lock.newCondition();
+  private long durable; // guarded by lock
+  private IOException failure; // guarded by lock
+  private volatile boolean running = true;
+  private final Thread writer;
+
+  private FileChannel channel; // writer thread only
+  private Path current;
+  private long segment;
+
+  BoardJournal(Path dir, boolean fsync, ObjectMapper json) throws IOException {
+    this.dir = Files.createDirectories(dir);
+    this.fsync = fsync;
+    this.json = json;
+    try (Stream<Path> files = Files.list(dir)) {
+      this.recovered = files.filter(f -> f.getFileName().toString().startsWith(PREFIX)).sorted().toList();
+    }
+    this.segment = recovered.isEmpty() ? 0 : number(recovered.get(recovered.size() - 1));
+    open();
+    this.writer = new Thread(this::writeLoop, "board-journal");
+    this.writer.setDaemon(true);
+    this.writer.start();
+  }
+
+  /** Queues {@code e} and returns its sequence number; see {@link #awaitDurable(long)}. */
+  long append(Entry e) {
+    long seq = appended.incrementAndGet();
+    queue.add(new Queued(seq, e));
+    return seq;
+  }
+
+  /** Closes the current segment after everything appended so far; returns the roll's sequence number. */
+  long roll() {
+    long seq = appended.incrementAndGet();
+    queue.add(new Queued(seq, null));
+    return seq;
+  }
+
+  /** Blocks until entry {@code seq} has been written (and fsynced, unless disabled). */
+  void awaitDurable(long seq) {
+    lock.lock();
+    try {
+      while (durable < seq) {
+        if (failure != null) throw new UncheckedIOException("Board journal is not writable", failure);
+        synced.awaitUninterruptibly();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** Deletes the segments closed by roll {@code seq} and before: their entries are in the database. */
+  void release(long rollSeq) {
+    awaitDurable(rollSeq);
+    for (Segment s; (s = closed.peekFirst()) != null && s.lastSeq() <= rollSeq; ) {
+      closed.pollFirst();
+      delete(s.file());
+    }
+  }
+
+  /** Entries in the segments a previous process left behind, oldest first; a torn last line is skipped. */
+  List<Entry> recovered() throws IOException {
+    List<Entry> entries = new ArrayList<>();
+    for (Path f : recovered) {
+      try (BufferedReader in = Files.newBufferedReader(f, StandardCharsets.UTF_8)) {
+        for (String line; (line = in.readLine()) != null; ) {
+          if (line.isBlank()) continue;
+          try {
+            entries.add(json.readValue(line, Entry.class));
+          } catch (IOException torn) {
+            log.warn("Skipping unreadable journal line in {}", f.getFileName());
+          }
+        }
+      }
+    }
+    return entries;
+  }
+
+  /** Drops the recovered segments once their entries have been replayed into the database. */
+  void releaseRecovered() {
+    recovered.forEach(BoardJournal::delete);
+  }
+
+  @Override
+  public void close() throws IOException {
+    running = false;
+    writer.interrupt();
+    try {
+      writer.join(5_000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    channel.close();
+  }
+
+  // ---- writer thread ----
+  private void writeLoop() {
+    List<Queued> batch = new ArrayList<>();
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+    while (running || !queue.isEmpty()) {
+      try {
+        batch.add(queue.take());
+      } catch (InterruptedException e) {
+        if (queue.isEmpty()) break;
+      }
+      queue.drainTo(batch);
+      if (batch.isEmpty()) continue;
+      try {
+        // one write and one fsync for the whole batch (per segment, if it contains a roll)
+        for (Queued q : batch) {
+          if (q.entry() == null) {
+            flush(buffer);
+            channel.close();
+            closed.addLast(new Segment(current, q.seq()));
+            open();
+          } else {
+            json.writeValue(buffer, q.entry());
+            buffer.write('\n');
+          }
+        }
+        flush(buffer);
+        markDurable(batch.get(batch.size() - 1).seq(), null);
+      } catch (IOException e) {
+        log.error("Board journal write failed", e);
+        markDurable(0, e);
+      }
+      batch.clear();
+    }
+  }
+
+  private void flush(ByteArrayOutputStream buffer) throws IOException {
+    ByteBuffer bytes = ByteBuffer.wrap(buffer.toByteArray());
+    buffer.reset();
+    while (bytes.hasRemaining()) channel.write(bytes);
+    if (fsync) channel.force(false);
+  }
+
+  private void markDurable(long seq, IOException error) {
+    lock.lock();
+    try {
+      durable = Math.max(durable, seq);
+      if (error != null) failure = error;
+      synced.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void open() throws IOException {
+    current = dir.resolve(PREFIX + String.format("%010d", ++segment) + SUFFIX);
+    channel = FileChannel.open(current, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+  }
+
+  private static long number(Path f) {
+    String name = f.getFileName().toString();
+    return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+  }
+
+  private static void delete(Path f) {
+    try {
+      Files.deleteIfExists(f);
+    } catch (IOException e) {
+      log.warn("Could not delete journal segment {}", f, e);
+    }
+  }
+}
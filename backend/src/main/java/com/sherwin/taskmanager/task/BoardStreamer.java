@@ -0,0 +1,61 @@
+package com.sherwin.taskmanager.task;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Writes the board as a JSON array straight from the JDBC cursor. Rows are {@link TaskView}
+ * projections, serialized as soon as they are read and never held by the persistence
+ * context, so heap use stays flat however large the board is.
+ */
+@Component
+@RequiredArgsConstructor
+public class BoardStreamer {
+
+  private final TaskRepository tasks;
+  private final ObjectMapper json;
+  private final PlatformTransactionManager txManager;
+
+  public void writeBoard(long projectId, OutputStream out) throws IOException {
+    // no flush per row: let the servlet buffer decide chunk boundaries
+    ObjectWriter writer = json.writerFor(TaskView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    try (JsonGenerator gen = json.getFactory().createGenerator(out)) {
+      gen.writeStartArray();
+      forEach(projectId, t -> write(writer, gen, t));
+      gen.writeEndArray();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /** Board order, one row at a time from the cursor, in a read-only transaction. */
+  public void forEach(long projectId, Consumer<TaskView> row) {
+    TransactionTemplate tx = new TransactionTemplate(txManager);
+    tx.setReadOnly(true);
+    tx.executeWithoutResult(s -> {
+      try (Stream<TaskView> rows = tasks.streamBoard(projectId)) {
+        rows.forEach(row);
+      }
+    });
+  }
+
+  private static void write(ObjectWriter writer, JsonGenerator gen, TaskView t) {
+    try {
+      writer.writeValue(gen, t);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.config.ReadYourWrites;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version of each project's board, bumped after every committed {@link TaskChange}
+ * to it. Exposed as the ETag of {@code GET /api/tasks} so polling clients with an up-to-date
+ * board get a 304 without touching the database, and a write to one project does not
+ * invalidate the others. The boot timestamp is part of the tag so versions from a previous
+ * process never match. The tag is weak: one version is served as JSON, CBOR or Smile, flat
+ * or grouped, gzipped or not, and Tomcat will not compress a response with a strong ETag.
+ * With read replicas the version runs ahead of what a replica has applied, so the tag is only
+ * handed out with a body read from the primary (see {@link #tagsReads()}).
+ */
+@Component
+public class BoardVersion {
+
+  private final long epoch = System.currentTimeMillis();
+  private final Map<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+  private final boolean replicated;
+
+  public BoardVersion(@Value("${app.board.engine:jpa}") String engine,
+                      @Value("${app.datasource.replica.urls:}") String replicas) {
+    this.replicated = !"memory".equals(engine) && !replicas.isBlank();
+  }
+
+  public long current(long projectId) {
+    AtomicLong v = versions.get(projectId);
+    return v == null ? 0 : v.get();
+  }
+
+  public String etag(long projectId) {
+    return "W/\"" + Long.toHexString(epoch) + "-" + projectId + "-" + current(projectId) + "\"";
+  }
+
+  /**
+   * Whether a board read now can carry the tag: it comes from memory or the primary, so it is at
+   * least as new as the version. A replica may lag; a stale body under the current tag would
+   * answer 304 to every revalidation until the next write.
+   */
+  public boolean tagsReads() {
+    return !replicated || ReadYourWrites.isPinned();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  void onChange(TaskChange change) {
+    versions.computeIfAbsent(change.projectId(), id -> new AtomicLong()).incrementAndGet();
+  }
+}
@@ -0,0 +1,17 @@
+package com.sherwin.taskmanager.task;
+
+import java.util.List;
+
+/**
+ * Changes to one board after a cursor. {@code next} is the cursor for the following call;
+ * {@code more} means the page was full and the caller should ask again right away.
+ */
+public record ChangeFeed(List<Change> changes, long next, boolean more) {
+
+  /**
+   * Every type but DELETED carries the task's full state, so a client upserts by {@code taskId}.
+   * A REBALANCED row with {@code taskId} 0 has no task: the {@code status} column was respaced
+   * and should be re-read.
+   */
+  public record Change(long seq, TaskChange.Type type, long taskId, String title, String status, Long position) {}
+}
@@ -0,0 +1,186 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.board.Boards;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Change log behind {@code GET /api/tasks/changes?since=}: a client keeps the seq of the last
+ * change it applied and asks only for what came after, so syncing costs the number of changes,
+ * not the size of the board.
+ * <p>
+ * With the JPA engine every {@link TaskChange} is collected here by a plain (not transactional)
+ * listener and the transaction's rows are written just before it commits: a change is in the
+ * log exactly when it committed. The memory engine writes its rows with each write-behind
+ * flush instead (see {@link TaskWriteBehind}), in the same transaction as the task rows.
+ * Either way {@link #append} numbers them in blocks of {@value #SEQ_BLOCK}, one
+ * {@code task_change_seq} value per block, and inserts them as one JDBC batch.
+ * <p>
+ * Seqs are taken in write order but committed in commit order, so a feed page ends at the
+ * first row younger than {@code app.changes.settle}: a row that commits later than that with a
+ * lower seq would be skipped by a cursor already past it. Leaving the young row out and going
+ * on would move the cursor past it just the same. Since seqs are taken as the transaction
+ * commits, the window only has to cover the insert and the commit, however long the
+ * transaction ran (an import chunk, say). Rows older than {@code app.changes.retention}
+ * are purged; a cursor from before the purge gets a {@link CursorExpiredException} and the
+ * client reloads the board.
+ */
+@Slf4j
+@Component
+public class ChangeLog {
+
+  /** The cursor is older than the retained log; the client has to reload the whole board. */
+  public static class CursorExpiredException extends RuntimeException {
+    CursorExpiredException() {
+      super("Cursor is older than the retained change log");
+    }
+  }
+
+  static final int SEQ_BLOCK = 50; // task_change_seq's increment
+
+  private final ChangeLogRepository entries;
+  private final Boards boards;
+  private final JdbcTemplate jdbc;
+  private final String nextSeqSql;
+  private final boolean writeThrough;
+  private final Duration settle;
+  private final Duration retention;
+
+  public ChangeLog(ChangeLogRepository entries,
+                   Boards boards,
+                   JdbcTemplate jdbc,
+                   EntityManagerFactory emf,
+                   @Value("${app.board.engine:jpa}") String engine,
+                   @Value("${app.changes.settle:PT2S}") Duration settle,
+                   @Value("${app.changes.retention:P7D}") Duration retention) {
+    this.entries = entries;
+    this.boards = boards;
+    this.jdbc = jdbc;
+    this.nextSeqSql = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+        .getSequenceSupport().getSequenceNextValString("task_change_seq");
+    this.writeThrough = !"memory".equals(engine);
+    this.settle = settle;
+    this.retention = retention;
+  }
+
+  /**
+   * Cursor to start from: take it <em>before</em> loading the board, then follow the feed from
+   * here. Changes that land in between are in the board and returned again by the first call,
+   * which is harmless since they are upserts; a cursor taken after the load would skip them.
+   * Like a feed page, it stops short of the first row still settling.
+   */
+  @Transactional(readOnly = true)
+  public ChangeFeed head() {
+    Instant settled = Instant.now().minus(settle);
+    Long head = entries.findHead(settled);
+    Long unsettled = entries.findFirstUnsettled(settled);
+    if (unsettled != null && (head == null || head >= unsettled)) head = unsettled - 1;
+    return new ChangeFeed(List.of(), head == null ? 0 : head, false);
+  }
+
+  /**
+   * Changes to the project after {@code since}, at most {@code limit} rows of the log, up to the
+   * first that has not settled. Within the page only each task's latest row is returned: its
+   * state supersedes the earlier ones.
+   */
+  @Transactional(readOnly = true)
+  public ChangeFeed since(long projectId, long since, int limit) {
+    Long min = entries.findMinSeq();
+    if (min != null && since < min - 1) throw new CursorExpiredException();
+    Instant settled = Instant.now().minus(settle);
+    List<ChangeLogEntry> fetched = entries.findFeed(projectId, since, Limit.of(limit));
+    int end = 0;
+    while (end < fetched.size() && !fetched.get(end).getRecordedAt().isAfter(settled)) end++;
+    List<ChangeLogEntry> rows = fetched.subList(0, end);
+    if (rows.isEmpty()) return new ChangeFeed(List.of(), since, false);
+
+    Map<Object, ChangeFeed.Change> latest = new LinkedHashMap<>();
+    for (ChangeLogEntry e : rows) {
+      Object key = e.getTaskId() != 0 ? e.getTaskId() : "column:" + e.getColumnId();
+      latest.remove(key); // re-insert, so the page stays in order of each key's last change
+      latest.put(key, change(e));
+    }
+    long next = rows.get(rows.size() - 1).getSeq();
+    return new ChangeFeed(List.copyOf(latest.values()), next, end == limit);
+  }
+
+  @EventListener
+  void onChange(TaskChange change) {
+    if (!writeThrough) return; // the memory engine logs its changes with the write-behind flush
+    Long columnId = change.status() == null ? null : boards.columnId(change.projectId(), change.status());
+    ChangeLogEntry entry = ChangeLogEntry.of(change.type(), change.projectId(), change.taskId(),
+        change.title(), columnId, change.position());
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      append(List.of(entry));
+      return;
+    }
+    for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+      if (s instanceof Pending p) {
+        p.rows.add(entry);
+        return;
+      }
+    }
+    Pending p = new Pending();
+    p.rows.add(entry);
+    TransactionSynchronizationManager.registerSynchronization(p);
+  }
+
+  /** Numbers {@code rows} in write order and inserts them, in the caller's transaction. */
+  void append(List<ChangeLogEntry> rows) {
+    Timestamp now = Timestamp.from(Instant.now());
+    List<Object[]> args = new ArrayList<>(rows.size());
+    long seq = 0;
+    long end = 0;
+    for (ChangeLogEntry e : rows) {
+      if (seq == end) {
+        seq = jdbc.queryForObject(nextSeqSql, Long.class);
+        end = seq + SEQ_BLOCK;
+      }
+      args.add(new Object[]{seq++, e.getProjectId(), e.getTaskId(), e.getType().name(), e.getTitle(),
+          e.getColumnId(), e.getPosition(), now});
+    }
+    jdbc.batchUpdate("""
+        insert into task_change_log (seq, project_id, task_id, type, title, column_id, position, recorded_at)
+        values (?, ?, ?, ?, ?, ?, ?, ?)
+        """, args);
+  }
+
+  @Scheduled(fixedDelayString = "${app.changes.purge-ms:3600000}")
+  void purge() {
+    int purged = entries.purgeBefore(Instant.now().minus(retention));
+    if (purged > 0) log.info("Purged {} change log rows older than {}", purged, retention);
+  }
+
+  /** The rows of one transaction, written as it is about to commit. */
+  private final class Pending implements TransactionSynchronization {
+    final List<ChangeLogEntry> rows = new ArrayList<>();
+
+    @Override
+    public void beforeCommit(boolean readOnly) {
+      append(rows);
+    }
+  }
+
+  private ChangeFeed.Change change(ChangeLogEntry e) {
+    String status = e.getColumnId() == null ? null : boards.columnName(e.getProjectId(), e.getColumnId());
+    return new ChangeFeed.Change(e.getSeq(), e.getType(), e.getTaskId(), e.getTitle(), status, e.getPosition());
+  }
+}
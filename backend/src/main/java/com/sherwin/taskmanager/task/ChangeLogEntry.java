@@ -0,0 +1,50 @@
+package com.sherwin.taskmanager.task;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * One row of the change log (outbox): the state of a task after a mutation, written in the
+ * mutation's transaction and numbered from a global sequence by {@link ChangeLog#append}. Ids are plain columns, not
+ * foreign keys, so the rows outlive the tasks and columns they describe.
+ */
+@Entity
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Table(name = "task_change_log", indexes = {
+    // every feed read is a seq range of one project
+    @Index(name = "ix_task_change_log_feed", columnList = "project_id, seq"),
+    @Index(name = "ix_task_change_log_recorded", columnList = "recorded_at")
+})
+public class ChangeLogEntry {
+  // not generated: a block of task_change_seq is taken per transaction as it commits, never
+  // kept for the next one, or a reader could move its cursor past a row that commits later
+  // with a lower number
+  @Id
+  private Long seq;
+
+  @Column(name = "project_id", nullable = false)
+  private long projectId;
+
+  @Column(nullable = false)
+  private long taskId; // 0 for REBALANCED, which is about a whole column
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 16)
+  private TaskChange.Type type;
+
+  private String title;
+
+  private Long columnId;
+
+  private Long position;
+
+  @Column(name = "recorded_at", nullable = false)
+  private Instant recordedAt;
+
+  static ChangeLogEntry of(TaskChange.Type type, long projectId, long taskId, String title, Long columnId, Long position) {
+    return new ChangeLogEntry(null, projectId, taskId, type, title, columnId, position, Instant.now());
+  }
+}
@@ -0,0 +1,44 @@
+package com.sherwin.taskmanager.task;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long> {
+  /** The project's rows after {@code since}, oldest first, settled or not. */
+  @Query("""
+      select e from ChangeLogEntry e
+      where e.projectId = :projectId and e.seq > :since
+      order by e.seq asc
+      """)
+  List<ChangeLogEntry> findFeed(@Param("projectId") long projectId,
+                                @Param("since") long since,
+                                Limit limit);
+
+  /** Highest seq recorded by {@code settled}: a cursor for a client that is about to load the board. */
+  @Query("select max(e.seq) from ChangeLogEntry e where e.recordedAt <= :settled")
+  Long findHead(@Param("settled") Instant settled);
+
+  /** Lowest seq recorded after {@code settled}, of any project; null if every row has settled. */
+  @Query("select min(e.seq) from ChangeLogEntry e where e.recordedAt > :settled")
+  Long findFirstUnsettled(@Param("settled") Instant settled);
+
+  /** Lowest seq still retained; everything below it has been purged (or never existed). */
+  @Query("select min(e.seq) from ChangeLogEntry e")
+  Long findMinSeq();
+
+  /** Deletes rows recorded before {@code cutoff}, always keeping the newest row so {@link #findMinSeq()} stays meaningful. */
+  @Transactional
+  @Modifying
+  @Query("""
+      delete from ChangeLogEntry e
+      where e.recordedAt < :cutoff and e.seq < (select max(m.seq) from ChangeLogEntry m)
+      """)
+  int purgeBefore(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,12 @@
+package com.sherwin.taskmanager.task;
+
+/**
+ * One column of one project's board: the unit of locking, rebalancing and tail tracking.
+ * {@code columnId} is the {@code BoardColumn} id stored on each task.
+ */
+public record ColumnKey(long projectId, long columnId) {
+
+  static ColumnKey of(Task t) {
+    return new ColumnKey(t.getProject().getId(), t.getColumn().getId());
+  }
+}
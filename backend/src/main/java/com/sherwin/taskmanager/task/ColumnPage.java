@@ -0,0 +1,13 @@
+package com.sherwin.taskmanager.task;
+
+import java.util.List;
+
+/** One keyset page of a column; {@code next} is the cursor for the following page, or null at the end. */
+public record ColumnPage(List<TaskView> tasks, String next) {
+
+  static ColumnPage of(List<TaskView> tasks, int limit) {
+    if (tasks.size() < limit) return new ColumnPage(tasks, null);
+    TaskView last = tasks.get(tasks.size() - 1);
+    return new ColumnPage(tasks, last.position() + ":" + last.id());
+  }
+}
@@ -0,0 +1,68 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.board.Boards;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respaces a column to evenly gapped positions. Moves that leave a crowded gap queue the
+ * column here and a scheduled job renumbers it off the request path; a move that finds no
+ * gap at all rebalances inline, in the move's own transaction and under its column lock, so
+ * the respaced positions and the move commit (or roll back) together.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ColumnRebalancer {
+
+  private final TaskRepository tasks;
+  private final ColumnWrites writes;
+  private final ApplicationEventPublisher events;
+  private final TaskMetrics metrics;
+  private final Boards boards;
+  private final Set<ColumnKey> pending = ConcurrentHashMap.newKeySet();
+
+  public void request(ColumnKey column) {
+    pending.add(column);
+  }
+
+  /** Renumbers the column in the caller's transaction; returns the number of rows rewritten. */
+  public int rebalance(ColumnKey column) {
+    List<Task> cards = tasks.findAllByColumnIdOrderByPositionAscIdAsc(column.columnId());
+    int rewritten = 0;
+    long pos = 0;
+    for (Task t : cards) {
+      pos += TaskPositions.GAP;
+      if (t.getPosition() != pos) {
+        t.setPosition(pos);
+        rewritten++;
+      }
+    }
+    metrics.rowsWritten("rebalance", rewritten);
+    return rewritten;
+  }
+
+  @Scheduled(fixedDelayString = "${app.board.rebalance-delay-ms:30000}")
+  void drain() {
+    for (ColumnKey column : List.copyOf(pending)) {
+      pending.remove(column);
+      Integer rewritten = writes.run(() -> Set.of(column), cols -> {
+        int n = rebalance(column);
+        if (n > 0) events.publishEvent(rebalanced(column));
+        return n;
+      });
+      log.debug("Rebalanced column {} of project {} ({} rows)", column.columnId(), column.projectId(), rewritten);
+    }
+  }
+
+  TaskChange rebalanced(ColumnKey column) {
+    return TaskChange.rebalanced(column.projectId(), boards.columnName(column.projectId(), column.columnId()));
+  }
+}
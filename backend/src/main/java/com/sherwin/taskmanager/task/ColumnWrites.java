@@ -0,0 +1,85 @@
+package com.sherwin.taskmanager.task;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs board writes one column at a time. Each column (of each project) hashes to one of a fixed set of lock
+ * stripes, so writes to different columns proceed in parallel while writes to the same
+ * column are serialized. Stripes are always taken in ascending order, so a cross-column
+ * move cannot deadlock. Each attempt runs in its own transaction; an optimistic-lock
+ * failure (a concurrent writer on another node, or a task that left its column before the
+ * lock was taken) is retried a bounded number of times.
+ */
+@Component
+public class ColumnWrites {
+
+  private final TransactionTemplate tx;
+  private final ReentrantLock[] stripes;
+  private final int maxAttempts;
+  private final long lockTimeoutMs;
+
+  public ColumnWrites(TransactionTemplate tx,
+                      @Value("${app.board.lock-stripes:64}") int stripes,
+                      @Value("${app.board.max-attempts:4}") int maxAttempts,
+                      @Value("${app.board.lock-timeout-ms:5000}") long lockTimeoutMs) {
+    this.tx = tx;
+    this.stripes = new ReentrantLock[stripes];
+    for (int i = 0; i < stripes; i++) this.stripes[i] = new ReentrantLock();
+    this.maxAttempts = maxAttempts;
+    this.lockTimeoutMs = lockTimeoutMs;
+  }
+
+  /**
+   * Locks the columns named by {@code columns} (re-evaluated on every attempt) and runs
+   * {@code work} in a transaction, passing it the set that is locked.
+   */
+  public <T> T run(Supplier<? extends Collection<ColumnKey>> columns, Function<Set<ColumnKey>, T> work) {
+    for (int attempt = 1; ; attempt++) {
+      Set<ColumnKey> locked = Set.copyOf(columns.get());
+      List<ReentrantLock> held = lock(locked);
+      try {
+        return tx.execute(s -> work.apply(locked));
+      } catch (OptimisticLockingFailureException e) {
+        if (attempt >= maxAttempts) throw e;
+      } finally {
+        held.forEach(ReentrantLock::unlock);
+      }
+    }
+  }
+
+  private List<ReentrantLock> lock(Set<ColumnKey> columns) {
+    Set<Integer> ordered = new TreeSet<>();
+    for (ColumnKey c : columns) ordered.add(Math.floorMod(c.hashCode(), stripes.length));
+    List<ReentrantLock> held = new ArrayList<>(ordered.size());
+    try {
+      for (int i : ordered) {
+        if (!stripes[i].tryLock(lockTimeoutMs, TimeUnit.MILLISECONDS)) {
+          throw new CannotAcquireLockException("Timed out waiting for column lock");
+        }
+        held.add(stripes[i]);
+      }
+      return held;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      held.forEach(ReentrantLock::unlock);
+      throw new CannotAcquireLockException("Interrupted waiting for column lock", e);
+    } catch (RuntimeException e) {
+      held.forEach(ReentrantLock::unlock);
+      throw e;
+    }
+  }
+}
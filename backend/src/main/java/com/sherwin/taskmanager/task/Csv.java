@@ -0,0 +1,70 @@
+package com.sherwin.taskmanager.task;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Just enough RFC 4180 for task import/export, one record at a time: fields are separated by
+ * commas, and a quoted field may hold commas, line breaks and doubled quotes.
+ */
+final class Csv {
+
+  static final int MAX_FIELD = 10_000; // an unterminated quote must not swallow the whole upload
+  static final int MAX_RECORD = 64 * 1024; // nor a line of empty fields, which no field cap catches
+
+  private Csv() {}
+
+  /** The next record's fields, or null at the end of the input. */
+  static List<String> read(BufferedReader in) throws IOException {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    int c = in.read();
+    if (c == -1) return null;
+    for (int length = 1; c != -1; c = in.read(), length++) {
+      if (length > MAX_RECORD) throw new IllegalArgumentException("CSV record longer than " + MAX_RECORD + " characters");
+      if (quoted) {
+        if (c != '"') {
+          field.append((char) c);
+        } else {
+          in.mark(1);
+          if (in.read() == '"') field.append('"');
+          else {
+            quoted = false;
+            in.reset();
+          }
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\n') {
+        break;
+      } else if (c != '\r') {
+        field.append((char) c);
+      }
+      if (field.length() > MAX_FIELD) throw new IllegalArgumentException("CSV field longer than " + MAX_FIELD + " characters");
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  static void write(Writer out, Object... fields) throws IOException {
+    for (int i = 0; i < fields.length; i++) {
+      if (i > 0) out.write(',');
+      String s = fields[i] == null ? "" : fields[i].toString();
+      if (s.indexOf(',') < 0 && s.indexOf('"') < 0 && s.indexOf('\n') < 0 && s.indexOf('\r') < 0) {
+        out.write(s);
+      } else {
+        out.write('"');
+        out.write(s.replace("\"", "\"\""));
+        out.write('"');
+      }
+    }
+    out.write("\r\n");
+  }
+}
@@ -0,0 +1,525 @@
+package com.sherwin.taskmanager.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sherwin.taskmanager.board.Boards;
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.task.dto.BatchResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * {@link BoardEngine} for {@code app.board.engine=memory}: each project's board is loaded
+ * from the database on first use and from then on lives in memory, one list per column kept
+ * in (position, id) order. A mutation locks the board, applies itself in memory, records
+ * every changed task with {@link TaskWriteBehind} (journal now, database on the next flush)
+ * and waits for the journal fsync outside the lock, so concurrent writers share it. Its
+ * {@link TaskChange}s are published only once that fsync is done, in journal order. A write
+ * whose journal entry fails throws, is never published, and from then on every write is
+ * refused: what it left in memory may or may not reach the table, as with a lost commit.
+ * <p>
+ * Positions are the same sparse ranks {@link TaskService} writes, so the table stays valid
+ * for the JPA engine. The database is only written behind, so a node running this engine must
+ * be the only writer of its boards.
+ */
+@Slf4j
+@Primary
+@Component
+@ConditionalOnProperty(name = "app.board.engine", havingValue = "memory")
+@RequiredArgsConstructor
+public class MemoryBoardEngine implements BoardEngine {
+
+  private static final Comparator<Card> ORDER =
+      Comparator.<Card>comparingLong(c -> c.position).thenComparingLong(c -> c.id);
+
+  private final Boards boards;
+  private final TaskRepository tasks;
+  private final TaskWriteBehind store;
+  private final ApplicationEventPublisher events;
+  private final TaskMetrics metrics;
+  private final ObjectMapper json;
+  private final PlatformTransactionManager txManager;
+  private final Map<Long, Board> byProject = new ConcurrentHashMap<>();
+  private final Set<ColumnKey> crowded = ConcurrentHashMap.newKeySet();
+  private volatile UncheckedIOException journalFailure; // set by the first write the journal failed
+
+  // ---- reads ----
+  @Override
+  public List<TaskView> board(long projectId) {
+    Board b = loaded(projectId);
+    b.lock.lock();
+    try {
+      List<TaskView> out = new ArrayList<>(b.cards.size());
+      for (Boards.Column col : boards.layout(projectId)) {
+        for (Card c : b.column(col.id())) out.add(c.view(col.name()));
+      }
+      return out;
+    } finally {
+      b.lock.unlock();
+    }
+  }
+
+  @Override
+  public void writeBoard(long projectId, OutputStream out) throws IOException {
+    out.write(json.writeValueAsBytes(board(projectId)));
+  }
+
+  /** A snapshot of the board: the lock is not held while {@code row} runs. */
+  @Override
+  public void forEach(long projectId, Consumer<TaskView> row) {
+    board(projectId).forEach(row);
+  }
+
+  @Override
+  public ColumnPage column(long projectId, String status, Long afterPosition, Long afterId, int limit) {
+    long columnId = boards.columnId(projectId, status);
+    Board b = loaded(projectId);
+    b.lock.lock();
+    try {
+      List<Card> cards = b.column(columnId);
+      int from = 0;
+      if (afterId != null) {
+        int at = Collections.binarySearch(cards, new Card(afterId, columnId, afterPosition, null), ORDER);
+        from = at >= 0 ? at + 1 : -at - 1;
+      }
+      List<TaskView> page = new ArrayList<>(Math.min(limit, Math.max(0, cards.size() - from)));
+      for (int i = from; i < cards.size() && page.size() < limit; i++) page.add(cards.get(i).view(status));
+      return ColumnPage.of(page, limit);
+    } finally {
+      b.lock.unlock();
+    }
+  }
+
+  // ---- writes ----
+  @Override
+  public TaskView create(long projectId, String title, String status) {
+    Task.checkTitle(title);
+    long columnId = columnId(projectId, status);
+    return write(projectId, b -> b.view(b.create(columnId, title)));
+  }
+
+  @Override
+  public void move(long projectId, long id, String to) {
+    long columnId = boards.columnId(projectId, to);
+    write(projectId, b -> {
+      b.move(b.require(id), columnId);
+      return null;
+    });
+  }
+
+  @Override
+  public void reorder(long projectId, long id, String toStatus, int toIndex) {
+    long columnId = boards.columnId(projectId, toStatus);
+    write(projectId, b -> {
+      b.reorder(b.require(id), columnId, toIndex);
+      return null;
+    });
+  }
+
+  @Override
+  public TaskView update(long projectId, long id, String title, String status) {
+    Task.checkTitle(title);
+    Long columnId = status == null ? null : boards.columnId(projectId, status);
+    return write(projectId, b -> {
+      Card c = b.require(id);
+      if (title != null) b.retitle(c, title);
+      if (columnId != null) b.move(c, columnId);
+      return b.view(c);
+    });
+  }
+
+  @Override
+  public void delete(long projectId, long id) {
+    write(projectId, b -> {
+      b.delete(b.require(id));
+      return null;
+    });
+  }
+
+  /** Same contract as {@link TaskService#apply}; the whole batch holds the board lock. */
+  @Override
+  public List<BatchResult> apply(long projectId, List<BatchOperation> ops) {
+    long first = boards.firstColumnId(projectId);
+    return write(projectId, b -> {
+      List<BatchResult> results = new ArrayList<>(ops.size());
+      for (int i = 0; i < ops.size(); i++) {
+        BatchOperation op = ops.get(i);
+        String name = op.op() == null ? "" : op.op();
+        if (op.status() != null && !boards.hasColumn(projectId, op.status())) {
+          results.add(BatchResult.failed(i, name, op.id(), "Unknown column"));
+          continue;
+        }
+        if (!Task.fits(op.title())) {
+          results.add(BatchResult.failed(i, name, op.id(), Task.TITLE_TOO_LONG));
+          continue;
+        }
+        Long target = op.status() == null ? null : boards.columnId(projectId, op.status());
+        if (name.equals("create")) {
+          Card c = b.create(target == null ? first : target, op.title() == null ? "New Task" : op.title());
+          results.add(BatchResult.ok(i, name, c.id));
+          continue;
+        }
+        Card c = op.id() == null ? null : b.cards.get(op.id());
+        if (c == null) {
+          results.add(BatchResult.failed(i, name, op.id(), "Task not found"));
+          continue;
+        }
+        switch (name) {
+          case "move" -> {
+            if (target == null) {
+              results.add(BatchResult.failed(i, name, op.id(), "status is required"));
+              continue;
+            }
+            if (op.index() == null) b.move(c, target);
+            else b.reorder(c, target, op.index());
+          }
+          case "retitle" -> {
+            if (op.title() == null) {
+              results.add(BatchResult.failed(i, name, op.id(), "title is required"));
+              continue;
+            }
+            b.retitle(c, op.title());
+          }
+          case "delete" -> b.delete(c);
+          default -> {
+            results.add(BatchResult.failed(i, name, op.id(), "Unknown op"));
+            continue;
+          }
+        }
+        results.add(BatchResult.ok(i, name, c.id));
+      }
+      return results;
+    });
+  }
+
+  /** {@code archived} runs under the board lock, before the removals are journaled. */
+  @Override
+  public List<TaskView> archive(long projectId, String status, Collection<Long> ids, Consumer<List<TaskView>> archived) {
+    long columnId = boards.columnId(projectId, status);
+    return write(projectId, b -> {
+      List<Card> cards = new ArrayList<>(ids.size());
+      for (long id : ids) {
+        Card c = b.cards.get(id);
+        if (c != null && c.columnId == columnId) cards.add(c);
+      }
+      List<TaskView> views = cards.stream().map(c -> c.view(status)).toList();
+      if (!views.isEmpty()) archived.accept(views);
+      b.archive(cards);
+      return views;
+    });
+  }
+
+  @Override
+  public TaskView restore(long projectId, long id, String title, String status, Runnable unarchive) {
+    long columnId = columnId(projectId, status);
+    return write(projectId, b -> {
+      unarchive.run();
+      Card existing = b.cards.get(id);
+      return b.view(existing != null ? existing : b.restore(id, columnId, title));
+    });
+  }
+
+  /** Respaces the columns whose last drop left a crowded gap, off the request path. */
+  @Scheduled(fixedDelayString = "${app.board.rebalance-delay-ms:30000}")
+  void drain() {
+    for (ColumnKey column : List.copyOf(crowded)) {
+      crowded.remove(column);
+      write(column.projectId(), b -> b.rebalance(column.columnId()));
+    }
+  }
+
+  // ---- helpers ----
+  /**
+   * Runs {@code work} under the board lock, waits until its journal entries are durable, then
+   * publishes its changes.
+   */
+  private <T> T write(long projectId, Function<Board, T> work) {
+    UncheckedIOException failed = journalFailure;
+    if (failed != null) throw new UncheckedIOException("Board journal failed; writes are refused", failed.getCause());
+    Board b = loaded(projectId);
+    T result;
+    long seq;
+    b.lock.lock();
+    try {
+      result = work.apply(b);
+      seq = b.lastSeq;
+    } finally {
+      b.lock.unlock();
+    }
+    try {
+      store.awaitDurable(seq);
+    } catch (UncheckedIOException e) {
+      journalFailure = e;
+      throw e;
+    }
+    publish(b, seq);
+    return result;
+  }
+
+  /**
+   * Publishes the board's changes journaled up to {@code seq}, oldest first. Whichever writer
+   * gets here first also publishes the durable changes of writers still on their way.
+   */
+  private void publish(Board b, long seq) {
+    b.publishing.lock();
+    try {
+      List<TaskChange> durable = new ArrayList<>();
+      b.lock.lock();
+      try {
+        for (Unpublished u; (u = b.outbox.peekFirst()) != null && u.seq() <= seq; ) {
+          durable.add(b.outbox.pollFirst().change());
+        }
+      } finally {
+        b.lock.unlock();
+      }
+      durable.forEach(events::publishEvent);
+    } finally {
+      b.publishing.unlock();
+    }
+  }
+
+  /** The project's board, loaded on first use; an unknown project throws before anything is cached. */
+  private Board loaded(long projectId) {
+    return byProject.computeIfAbsent(projectId, this::load);
+  }
+
+  private long columnId(long projectId, String status) {
+    return status == null ? boards.firstColumnId(projectId) : boards.columnId(projectId, status);
+  }
+
+  private Board load(long projectId) {
+    List<Boards.Column> layout = boards.layout(projectId);
+    Board b = new Board(projectId);
+    // not read-only: with read replicas that would load from a replica, and a board loaded
+    // behind the primary would be served (and written over) from memory for as long as it lives
+    TransactionTemplate tx = new TransactionTemplate(txManager);
+    tx.executeWithoutResult(s -> {
+      try (Stream<TaskView> rows = tasks.streamBoard(projectId)) {
+        rows.forEach(t -> {
+          long columnId = layout.stream().filter(c -> c.name().equals(t.status())).findFirst().orElseThrow().id();
+          Card c = new Card(t.id(), columnId, t.position(), t.title());
+          b.cards.put(c.id, c);
+          b.column(columnId).add(c); // rows arrive in (column, position, id) order
+        });
+      }
+    });
+    log.debug("Loaded board of project {} ({} tasks)", projectId, b.cards.size());
+    return b;
+  }
+
+  /** A change made in memory, waiting for journal entry {@code seq} to be durable. */
+  private record Unpublished(long seq, TaskChange change) {}
+
+  private static final class Card {
+    final long id;
+    long columnId;
+    long position;
+    String title;
+
+    Card(long id, long columnId, long position, String title) {
+      this.id = id;
+      this.columnId = columnId;
+      this.position = position;
+      this.title = title;
+    }
+
+    TaskView view(String status) {
+      return new TaskView(id, title, status, position);
+    }
+  }
+
+  /** One project's cards; every method runs with {@link #lock} held. */
+  private final class Board {
+    // not the monitor: create takes ids from task_seq and every write appends to the journal,
+    // and on JDK 21 a virtual thread that blocks on I/O inside synchronized pins its carrier
+    final Lock lock = new ReentrantLock();
+    // held while publishing, so the board's changes go out one writer at a time, in order
+    final Lock publishing = new ReentrantLock();
+    final long projectId;
+    final Map<Long, Card> cards = new HashMap<>();
+    final Map<Long, List<Card>> columns = new HashMap<>();
+    final Deque<Unpublished> outbox = new ArrayDeque<>();
+    long lastSeq;
+
+    Board(long projectId) {
+      this.projectId = projectId;
+    }
+
+    List<Card> column(long columnId) {
+      return columns.computeIfAbsent(columnId, c -> new ArrayList<>());
+    }
+
+    Card require(long id) {
+      Card c = cards.get(id);
+      if (c == null) throw new NoSuchElementException("Task not found");
+      return c;
+    }
+
+    Card create(long columnId, String title) {
+      Card c = new Card(store.nextId(), columnId, TaskPositions.after(tail(columnId)), title);
+      cards.put(c.id, c);
+      column(columnId).add(c);
+      written(c, "create", TaskChange.Type.CREATED);
+      return c;
+    }
+
+    /** An archived card back under its old id; the write-behind inserts it, as it does a new card. */
+    Card restore(long id, long columnId, String title) {
+      Card c = new Card(id, columnId, TaskPositions.after(tail(columnId)), title);
+      cards.put(c.id, c);
+      column(columnId).add(c);
+      written(c, "restore", TaskChange.Type.CREATED);
+      return c;
+    }
+
+    void move(Card c, long to) {
+      if (c.columnId == to) return;
+      unlink(c);
+      c.position = TaskPositions.after(tail(to));
+      c.columnId = to;
+      column(to).add(c);
+      written(c, "move", TaskChange.Type.MOVED);
+    }
+
+    /** Same placement rules as {@link TaskService}: midpoint of the neighbours, rebalance when there is no room. */
+    void reorder(Card c, long to, int toIndex) {
+      int index = Math.max(0, toIndex);
+      Long[] around = neighbours(c, to, index);
+      if (c.columnId == to && fitsBetween(c.position, around[0], around[1])) return;
+
+      Long pos = TaskPositions.between(around[0], around[1]);
+      if (pos == null) {
+        rebalance(to);
+        around = neighbours(c, to, index);
+        pos = TaskPositions.between(around[0], around[1]);
+      } else if (TaskPositions.isCrowded(around[0], pos, around[1])) {
+        crowded.add(new ColumnKey(projectId, to));
+      }
+
+      unlink(c);
+      c.columnId = to;
+      c.position = pos;
+      List<Card> list = column(to);
+      list.add(-Collections.binarySearch(list, c, ORDER) - 1, c);
+      written(c, "reorder", TaskChange.Type.MOVED);
+    }
+
+    void retitle(Card c, String title) {
+      if (title.equals(c.title)) return;
+      c.title = title;
+      written(c, "retitle", TaskChange.Type.RETITLED);
+    }
+
+    void delete(Card c) {
+      remove(c);
+      metrics.rowsWritten("delete", 1);
+    }
+
+    /** Same as deleting them: the write-behind drops the rows, and clients see DELETED. */
+    void archive(List<Card> archived) {
+      for (Card c : archived) remove(c);
+      metrics.rowsWritten("archive", archived.size());
+    }
+
+    /** Renumbers a column to evenly gapped positions; returns the number of cards rewritten. */
+    int rebalance(long columnId) {
+      int rewritten = 0;
+      long pos = 0;
+      for (Card c : column(columnId)) {
+        pos += TaskPositions.GAP;
+        if (c.position != pos) {
+          c.position = pos;
+          lastSeq = store.record(entry(TaskChange.Type.REBALANCED, c));
+          rewritten++;
+        }
+      }
+      metrics.rowsWritten("rebalance", rewritten);
+      if (rewritten > 0) {
+        outbox.add(new Unpublished(lastSeq, TaskChange.rebalanced(projectId, boards.columnName(projectId, columnId))));
+      }
+      return rewritten;
+    }
+
+    TaskView view(Card c) {
+      return c.view(boards.columnName(projectId, c.columnId));
+    }
+
+    /** Positions of the cards at {@code index - 1} and {@code index} of column {@code to}, not counting {@code c}. */
+    private Long[] neighbours(Card c, long to, int index) {
+      List<Card> list = column(to);
+      int self = c.columnId == to ? Collections.binarySearch(list, c, ORDER) : -1;
+      int size = list.size() - (self >= 0 ? 1 : 0);
+      Long prev = null;
+      Long next = null;
+      if (index > 0 && size > 0) prev = at(list, self, Math.min(index, size) - 1).position;
+      if (index < size) next = at(list, self, index).position;
+      return new Long[]{prev, next};
+    }
+
+    private Card at(List<Card> list, int self, int i) {
+      return list.get(self >= 0 && i >= self ? i + 1 : i);
+    }
+
+    private Long tail(long columnId) {
+      List<Card> list = column(columnId);
+      return list.isEmpty() ? null : list.get(list.size() - 1).position;
+    }
+
+    private void unlink(Card c) {
+      List<Card> list = column(c.columnId);
+      list.remove(Collections.binarySearch(list, c, ORDER));
+    }
+
+    private void remove(Card c) {
+      unlink(c);
+      cards.remove(c.id);
+      lastSeq = store.record(BoardJournal.Entry.deleted(projectId, c.id));
+      outbox.add(new Unpublished(lastSeq, change(TaskChange.Type.DELETED, c)));
+    }
+
+    private void written(Card c, String op, TaskChange.Type type) {
+      lastSeq = store.record(entry(type, c));
+      metrics.rowsWritten(op, 1);
+      outbox.add(new Unpublished(lastSeq, change(type, c)));
+    }
+
+    private BoardJournal.Entry entry(TaskChange.Type type, Card c) {
+      return BoardJournal.Entry.of(type, projectId, c.id, c.columnId, c.position, c.title);
+    }
+
+    private TaskChange change(TaskChange.Type type, Card c) {
+      return new TaskChange(type, projectId, c.id, c.title, boards.columnName(projectId, c.columnId), c.position);
+    }
+  }
+
+  private static boolean fitsBetween(long pos, Long prev, Long next) {
+    return (prev == null || prev < pos) && (next == null || pos < next);
+  }
+}
@@ -0,0 +1,114 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.board.Boards;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Collapses bursts of move/reorder calls for one card. With {@code app.board.coalesce-window}
+ * set, the first call for a card waits out the window and then applies whichever target came
+ * last; calls arriving meanwhile only replace the target and wait for that one write. A drag
+ * that sends ten reorders within the window costs one transaction, and every caller answers
+ * (or fails) once it has run. Off (zero) by default, since the window is added to the latency
+ * of every move.
+ */
+@Component
+public class ReorderCoalescer {
+
+  /** Where the card should end up; a null index is a move to the bottom. */
+  private record Target(String status, Integer index) {}
+
+  private record Card(long projectId, long id) {}
+
+  private static final class Burst {
+    volatile Target target;
+    final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    Burst(Target target) {
+      this.target = target;
+    }
+  }
+
+  private final BoardEngine engine;
+  private final Boards boards;
+  private final TaskMetrics metrics;
+  private final Duration window;
+  private final ConcurrentMap<Card, Burst> bursts = new ConcurrentHashMap<>();
+
+  public ReorderCoalescer(BoardEngine engine,
+                          Boards boards,
+                          TaskMetrics metrics,
+                          @Value("${app.board.coalesce-window:PT0S}") Duration window) {
+    this.engine = engine;
+    this.boards = boards;
+    this.metrics = metrics;
+    this.window = window;
+  }
+
+  public void move(long projectId, long id, String to) {
+    submit(new Card(projectId, id), new Target(to, null));
+  }
+
+  public void reorder(long projectId, long id, String toStatus, int toIndex) {
+    submit(new Card(projectId, id), new Target(toStatus, toIndex));
+  }
+
+  private void submit(Card card, Target target) {
+    if (window.isZero()) {
+      apply(card, target);
+      return;
+    }
+    boards.columnId(card.projectId(), target.status()); // an unknown column fails its own call, not the burst
+
+    Burst mine = new Burst(target);
+    Burst burst = bursts.compute(card, (k, open) -> {
+      if (open == null) return mine;
+      open.target = target;
+      return open;
+    });
+    if (burst != mine) {
+      metrics.coalesced();
+      await(burst);
+      return;
+    }
+
+    try {
+      Thread.sleep(window.toMillis());
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt(); // apply now rather than drop the callers waiting on us
+    }
+    bursts.remove(card, mine); // later calls open a new burst; the target can no longer change
+    try {
+      apply(card, mine.target);
+      mine.done.complete(null);
+    } catch (RuntimeException | Error e) {
+      mine.done.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private void apply(Card card, Target target) {
+    if (target.index() == null) engine.move(card.projectId(), card.id(), target.status());
+    else engine.reorder(card.projectId(), card.id(), target.status(), target.index());
+  }
+
+  /** Waits for the burst's write; its failure is rethrown as is, for the controller's handlers. */
+  private static void await(Burst burst) {
+    try {
+      burst.done.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for a coalesced move", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException r) throw r;
+      if (e.getCause() instanceof Error err) throw err;
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
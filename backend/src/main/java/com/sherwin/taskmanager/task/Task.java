@@ -1,21 +1,63 @@
 package com.sherwin.taskmanager.task;
 
+import com.sherwin.taskmanager.board.BoardColumn;
+import com.sherwin.taskmanager.project.Project;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
+
+/** Write model of a card. Reads go through {@link TaskView} projections instead. */
 @Entity
 @Getter @Setter
 @NoArgsConstructor @AllArgsConstructor
+@Table(indexes = {
+    // every column read and write is a position range of one column_id (which implies the project)
+    @Index(name = "ix_task_board", columnList = "column_id, position"),
+    @Index(name = "ix_task_project", columnList = "project_id"),
+    @Index(name = "ix_task_moved", columnList = "column_id, moved_at")
+})
 public class Task {
-  @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+  static final int MAX_TITLE = 255; // task.title is varchar(255)
+  static final String TITLE_TOO_LONG = "title is longer than " + MAX_TITLE + " characters";
+
+  // pooled sequence (not IDENTITY) so Hibernate can batch inserts: one nextval per 50 rows
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+  @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", allocationSize = 50)
   private Long id;
 
-  @Column(nullable = false)
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  private Project project;
+
+  @Column(nullable = false, length = MAX_TITLE)
   private String title;
 
-  @Column(nullable = false)
-  private String status; // "Todo" | "In Progress" | "Done"
+  // the status: a BoardColumn of the project ("Todo" | "In Progress" | "Done" by default), stored as its id
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
+  @JoinColumn(name = "column_id")
+  private BoardColumn column;
 
   @Column(nullable = false)
-  private Integer position = 0; // order within a column
+  private Long position = 0L; // sparse rank within a column, see TaskPositions
+
+  @Column(name = "moved_at", nullable = false)
+  private Instant movedAt = Instant.now(); // when it entered its current column, see TaskArchive
+
+  @Version
+  private Long version; // optimistic lock for writers on other nodes, see ColumnWrites
+
+  /** Whether {@code title} fits the column; null (no change) does. */
+  static boolean fits(String title) {
+    return title == null || title.codePointCount(0, title.length()) <= MAX_TITLE;
+  }
+
+  /**
+   * {@code title}, or an {@link IllegalArgumentException} (400) if the column cannot hold it:
+   * checked before a write is applied, so it never reaches the table to fail there.
+   */
+  static String checkTitle(String title) {
+    if (!fits(title)) throw new IllegalArgumentException(TITLE_TOO_LONG);
+    return title;
+  }
 }
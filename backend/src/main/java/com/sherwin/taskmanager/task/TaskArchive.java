@@ -0,0 +1,175 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.board.Boards;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps columns that only grow (Done) small: a scheduled job moves the cards that have been in
+ * a column longest to the {@code task_archive} table, a batch per transaction, until the column
+ * is within its policy. Policies are per column name, for every project:
+ * <pre>
+ * app.archive.columns[Done].max-age=P30D   # cards that entered the column longer ago
+ * app.archive.columns[Done].keep=1000      # cards beyond the newest 1000
+ * </pre>
+ * Either threshold alone is enough. Archived cards leave the board through the
+ * {@link BoardEngine}, so clients see them deleted; they are read back a page at a time and
+ * restored under their old id.
+ * <p>
+ * On PostgreSQL the archive is partitioned by completion month (see V9__task_archive.sql); the
+ * partition for a month is created before the first batch that writes to it.
+ */
+@Slf4j
+@Component
+public class TaskArchive {
+
+  /** Thresholds for one column; null means no limit of that kind. */
+  public record Policy(Duration maxAge, Integer keep) {}
+
+  private final BoardEngine engine;
+  private final TaskRepository tasks;
+  private final ArchivedTaskRepository archived;
+  private final Boards boards;
+  private final JdbcTemplate jdbc;
+  private final Map<String, Policy> policies;
+  private final int batchSize;
+  private final boolean partitioned;
+  private final Set<YearMonth> partitions = ConcurrentHashMap.newKeySet();
+
+  public TaskArchive(BoardEngine engine,
+                     TaskRepository tasks,
+                     ArchivedTaskRepository archived,
+                     Boards boards,
+                     JdbcTemplate jdbc,
+                     EntityManagerFactory emf,
+                     Environment env,
+                     @Value("${app.archive.batch-size:500}") int batchSize) {
+    this.engine = engine;
+    this.tasks = tasks;
+    this.archived = archived;
+    this.boards = boards;
+    this.jdbc = jdbc;
+    this.policies = Binder.get(env)
+        .bind("app.archive.columns", Bindable.mapOf(String.class, Policy.class))
+        .orElse(Map.of());
+    this.batchSize = batchSize;
+    this.partitioned = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+        instanceof PostgreSQLDialect;
+  }
+
+  @Scheduled(fixedDelayString = "${app.archive.delay-ms:600000}")
+  void run() {
+    policies.forEach((status, policy) -> {
+      for (ColumnKey column : tasks.findColumnsNamed(status)) {
+        int n = archive(column, status, policy);
+        if (n > 0) log.info("Archived {} cards of column '{}' of project {}", n, status, column.projectId());
+      }
+    });
+  }
+
+  /** Archives what {@code policy} says is too many or too old in the column; returns the number of cards archived. */
+  int archive(ColumnKey column, String status, Policy policy) {
+    int total = 0;
+    for (;;) {
+      long due = due(column.columnId(), policy);
+      if (due <= 0) return total;
+      List<Task> batch = tasks.findLongestInColumn(column.columnId(), Limit.of((int) Math.min(due, batchSize)));
+      if (batch.isEmpty()) return total;
+
+      Map<Long, Instant> completedAt = new HashMap<>();
+      for (Task t : batch) completedAt.put(t.getId(), t.getMovedAt());
+      if (partitioned) createPartitions(completedAt.values());
+
+      Instant now = Instant.now();
+      int n = engine.archive(column.projectId(), status, completedAt.keySet(), views -> archived.saveAll(views.stream()
+          .map(v -> new ArchivedTask(v.id(), column.projectId(), column.columnId(), v.title(), completedAt.get(v.id()), now))
+          .toList())).size();
+      total += n;
+      if (n == 0) return total; // the candidates all left the column meanwhile: try again next run
+    }
+  }
+
+  /** A page of the project's archive, newest completed first, after the ({@code afterCompletedAt}, {@code afterId}) cursor if any. */
+  @Transactional(readOnly = true)
+  public ArchivePage page(long projectId, Instant afterCompletedAt, Long afterId, int limit) {
+    List<ArchivedTask> rows = afterId == null
+        ? archived.findPage(projectId, Limit.of(limit))
+        : archived.findPageAfter(projectId, afterCompletedAt, afterId, Limit.of(limit));
+    return ArchivePage.of(rows.stream()
+        .map(a -> new ArchivePage.Card(a.getId(), a.getTitle(), status(a), a.getCompletedAt(), a.getArchivedAt()))
+        .toList(), limit);
+  }
+
+  /**
+   * Puts an archived card back on its board, at the bottom of {@code status} or else of the
+   * column it was archived from. The archive row is deleted in the same transaction, so a
+   * failure leaves the card archived and a later archive of it finds no stale row in the way.
+   */
+  public TaskView restore(long projectId, long id, String status) {
+    ArchivedTask a = archived.findById(id)
+        .filter(found -> found.getProjectId() == projectId)
+        .orElseThrow(() -> new NoSuchElementException("Archived task not found"));
+    return engine.restore(projectId, id, a.getTitle(), status != null ? status : status(a), () -> archived.delete(a));
+  }
+
+  /** How many of the column's longest-standing cards the policy wants gone. */
+  private long due(long columnId, Policy policy) {
+    long due = 0;
+    if (policy.keep() != null) due = tasks.countByColumnId(columnId) - policy.keep();
+    if (policy.maxAge() != null) {
+      due = Math.max(due, tasks.countByColumnIdAndMovedAtBefore(columnId, Instant.now().minus(policy.maxAge())));
+    }
+    return due;
+  }
+
+  /** Name of the column the card was archived from; null (the first column, on restore) if the board no longer has it. */
+  private String status(ArchivedTask a) {
+    try {
+      return boards.columnName(a.getProjectId(), a.getColumnId());
+    } catch (NoSuchElementException e) {
+      return null;
+    }
+  }
+
+  /** Outside the archiving transaction: on PostgreSQL a failed statement would abort it. */
+  private void createPartitions(Iterable<Instant> completedAt) {
+    Set<YearMonth> months = new TreeSet<>();
+    for (Instant at : completedAt) months.add(YearMonth.from(at.atOffset(ZoneOffset.UTC)));
+    for (YearMonth m : months) {
+      if (partitions.contains(m)) continue;
+      try {
+        jdbc.execute("create table if not exists task_archive_%d_%02d partition of task_archive for values from ('%s') to ('%s')"
+            .formatted(m.getYear(), m.getMonthValue(), m.atDay(1) + " 00:00:00+00", m.plusMonths(1).atDay(1) + " 00:00:00+00"));
+        partitions.add(m);
+      } catch (DataAccessException e) {
+        // rows of that month are already in the default partition: they stay there
+        log.warn("Could not create archive partition for {}; its rows go to the default partition", m, e);
+        partitions.add(m);
+      }
+    }
+  }
+}
@@ -0,0 +1,20 @@
+package com.sherwin.taskmanager.task;
+
+/**
+ * Published by {@link TaskService} for every board mutation, inside the mutating transaction.
+ * Listeners that must only see committed state use {@code @TransactionalEventListener}.
+ */
+public record TaskChange(Type type, long projectId, long taskId, String title, String status, Long position) {
+
+  public enum Type { CREATED, MOVED, RETITLED, DELETED, REBALANCED }
+
+  /** {@code status} is the name of the task's column, which the entity only holds by id. */
+  static TaskChange of(Type type, Task t, String status) {
+    return new TaskChange(type, t.getProject().getId(), t.getId(), t.getTitle(), status, t.getPosition());
+  }
+
+  /** A whole column was respaced; order is unchanged but positions moved. */
+  static TaskChange rebalanced(long projectId, String status) {
+    return new TaskChange(Type.REBALANCED, projectId, 0L, null, status, null);
+  }
+}
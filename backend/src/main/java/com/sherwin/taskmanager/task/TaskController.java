@@ -1,164 +1,307 @@
 package com.sherwin.taskmanager.task;
 
+import com.sherwin.taskmanager.board.Boards;
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.task.dto.BatchResult;
+import com.sherwin.taskmanager.task.dto.ImportResult;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
+import java.util.NoSuchElementException;
 
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.CONFLICT;
+import static org.springframework.http.HttpStatus.GONE;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+/**
+ * One project's board. {@code /api/projects/{projectId}/tasks} addresses a project;
+ * {@code /api/tasks} is the default project's board, as before projects existed.
+ */
 @RestController
-@RequestMapping("/api/tasks")
+@RequestMapping({"/api/tasks", "/api/projects/{projectId}/tasks"})
 @RequiredArgsConstructor
 public class TaskController {
 
-  private final TaskRepository tasks;
+  private final BoardEngine service;
+  private final BoardVersion version;
+  private final BoardEvents events;
+  private final Boards boards;
+  private final TaskSearchIndex search;
+  private final ChangeLog changes;
+  private final TaskTransfer transfer;
+  private final TaskArchive archive;
+  private final ReorderCoalescer moves;
+
+  static final int MAX_PAGE = 500;
+  static final int MAX_BATCH = 5000;
+  static final int MAX_HITS = 100;
+  static final int MAX_CHANGES = 5000;
 
-  // ---- List (ordered column-wise: Todo -> In Progress -> Done) ----
+  // ---- List (ordered column-wise as the project's columns: Todo -> In Progress -> Done) ----
+  // ETag is the board version: an unchanged board answers 304 without a query.
+  // Bodies read from a replica carry no ETag (see BoardVersion.tagsReads()).
+  // Rows are TaskView projections (see BoardEngine): nothing is hydrated or dirty-checked.
+  // JSON by default; Accept: application/cbor or application/x-jackson-smile for binary bodies.
   @GetMapping
-  public List<Task> list() {
-    List<Task> out = new ArrayList<>();
-    out.addAll(tasks.findAllByStatusOrderByPositionAsc("Todo"));
-    out.addAll(tasks.findAllByStatusOrderByPositionAsc("In Progress"));
-    out.addAll(tasks.findAllByStatusOrderByPositionAsc("Done"));
-    return out;
+  public ResponseEntity<List<TaskView>> list(@PathVariable(required = false) Long projectId, WebRequest request) {
+    long project = board(projectId);
+    String etag = version.etag(project); // read before querying: a racing write can only make the tag older than the body
+    if (notModified(request, etag)) return null;
+    return ok(etag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(service.board(project));
   }
 
-  // ---- Create (append to bottom of its column) ----
-  @PostMapping
-  @Transactional
-  public Task create(@RequestBody Map<String, String> body) {
-    String title = body.getOrDefault("title", "New Task");
-    String status = body.getOrDefault("status", "Todo");
+  // ---- Same board grouped by column: {"columns":[{"status":..,"tasks":[{id,title,position}]}]} ----
+  @GetMapping("/columns")
+  public ResponseEntity<BoardColumns> columns(@PathVariable(required = false) Long projectId, WebRequest request) {
+    long project = board(projectId);
+    String etag = version.etag(project);
+    if (notModified(request, etag)) return null;
+    return ok(etag)
+        .varyBy(HttpHeaders.ACCEPT)
+        .body(BoardColumns.of(boards.columns(project), service.board(project)));
+  }
+
+  // ---- Streamed list: same body as list(), written row by row from the JDBC cursor ----
+  @GetMapping("/stream")
+  public ResponseEntity<StreamingResponseBody> stream(@PathVariable(required = false) Long projectId, WebRequest request) {
+    long project = board(projectId);
+    String etag = version.etag(project);
+    if (notModified(request, etag)) return null;
+    return ok(etag)
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(out -> service.writeBoard(project, out));
+  }
+
+  // ---- Live changes as Server-Sent Events; reconnects resume from Last-Event-ID ----
+  // Written by BoardEvents on the raw async response; the response parameter marks it handled.
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public void events(@PathVariable(required = false) Long projectId,
+                     @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+    events.subscribe(board(projectId), lastEventId, request);
+  }
 
-    int max = tasks.findAllByStatusOrderByPositionAsc(status)
-                   .stream().map(Task::getPosition).max(Integer::compareTo).orElse(-1);
+  // ---- Deltas since a cursor: ?since=<seq>&limit=n; without since, the cursor to start from ----
+  // Take that cursor before loading the board, or changes made in between are never seen.
+  // 410 Gone when the cursor predates the retained log: reload the board and start over.
+  @GetMapping("/changes")
+  public ChangeFeed changes(@PathVariable(required = false) Long projectId,
+                            @RequestParam(required = false) Long since,
+                            @RequestParam(defaultValue = "500") int limit) {
+    long project = board(projectId);
+    if (since == null) return changes.head();
+    return changes.since(project, since, Math.max(1, Math.min(limit, MAX_CHANGES)));
+  }
 
-    Task t = new Task();
-    t.setTitle(title);
-    t.setStatus(status);
-    t.setPosition(max + 1);
-    return tasks.save(t);
+  // ---- Title search: every word of q matches as a prefix; served from memory, no LIKE scan ----
+  @GetMapping("/search")
+  public List<TaskSearchIndex.Hit> search(@PathVariable(required = false) Long projectId,
+                                          @RequestParam String q,
+                                          @RequestParam(defaultValue = "20") int limit) {
+    return search.search(board(projectId), q, Math.max(1, Math.min(limit, MAX_HITS)));
+  }
+
+  // ---- One column, keyset-paginated: ?after=<position>:<id>&limit=n ----
+  @GetMapping("/columns/{status}")
+  public ColumnPage column(@PathVariable(required = false) Long projectId,
+                           @PathVariable String status,
+                           @RequestParam(required = false) String after,
+                           @RequestParam(defaultValue = "100") int limit) {
+    long project = board(projectId);
+    int n = Math.max(1, Math.min(limit, MAX_PAGE));
+    if (after == null || after.isBlank()) {
+      return service.column(project, status, null, null, n);
+    }
+    int sep = after.indexOf(':');
+    long position;
+    long id;
+    try {
+      position = Long.parseLong(after.substring(0, sep));
+      id = Long.parseLong(after.substring(sep + 1));
+    } catch (NumberFormatException | StringIndexOutOfBoundsException e) {
+      throw new ResponseStatusException(BAD_REQUEST, "Malformed cursor");
+    }
+    return service.column(project, status, position, id, n);
+  }
+
+  // ---- Create (append to bottom of its column; the first column if none is given) ----
+  @PostMapping
+  public TaskView create(@PathVariable(required = false) Long projectId, @RequestBody Map<String, String> body) {
+    String title = body.getOrDefault("title", "New Task");
+    return service.create(board(projectId), title, body.get("status"));
   }
 
   // ---- Move to another column, always to bottom (simple move) ----
+  // Moves and reorders of one card within app.board.coalesce-window are applied once, last one wins.
   @PatchMapping("/{id}/move")
-  @Transactional
-  public ResponseEntity<Void> move(@PathVariable long id, @RequestBody Map<String, String> body) {
-    String to = body.getOrDefault("status", "Todo");
-    Task t = tasks.findById(id).orElseThrow();
-
-    if (!Objects.equals(t.getStatus(), to)) {
-      // close gap in old column
-      var fromList = tasks.findAllByStatusOrderByPositionAsc(t.getStatus());
-      int fromIndex = indexOf(fromList, id);
-      for (int i = fromIndex + 1; i < fromList.size(); i++) fromList.get(i).setPosition(i - 1);
-      tasks.saveAll(fromList);
-
-      // append to bottom in new column
-      int max = tasks.findAllByStatusOrderByPositionAsc(to)
-                     .stream().map(Task::getPosition).max(Integer::compareTo).orElse(-1);
-      t.setStatus(to);
-      t.setPosition(max + 1);
-      tasks.save(t);
-    }
+  public ResponseEntity<Void> move(@PathVariable(required = false) Long projectId, @PathVariable long id,
+                                   @RequestBody Map<String, String> body) {
+    moves.move(board(projectId), id, body.getOrDefault("status", "Todo"));
     return ResponseEntity.noContent().build();
   }
 
   // ---- Reorder: precise insert at index, within or across columns ----
   @PatchMapping("/{id}/reorder")
-  @Transactional
-  public ResponseEntity<Void> reorder(@PathVariable long id, @RequestBody Map<String, Object> body) {
+  public ResponseEntity<Void> reorder(@PathVariable(required = false) Long projectId, @PathVariable long id,
+                                      @RequestBody Map<String, Object> body) {
     String toStatus = String.valueOf(body.getOrDefault("status", "Todo"));
     int toIndex = ((Number) body.getOrDefault("index", 0)).intValue();
+    moves.reorder(board(projectId), id, toStatus, toIndex);
+    return ResponseEntity.noContent().build();
+  }
+
+  // ---- Edit title/status (simple patch) ----
+  @PatchMapping("/{id}")
+  public TaskView update(@PathVariable(required = false) Long projectId, @PathVariable long id,
+                     @RequestBody Map<String, String> body) {
+    return service.update(board(projectId), id, body.get("title"), body.get("status"));
+  }
 
-    var task = tasks.findById(id).orElseThrow();
-    String fromStatus = task.getStatus();
-
-    // Same column: shift range and drop at target index
-    if (fromStatus.equals(toStatus)) {
-      var same = tasks.findAllByStatusOrderByPositionAsc(fromStatus);
-      int fromIndex = indexOf(same, id);
-      if (fromIndex == toIndex) return ResponseEntity.noContent().build();
-
-      if (toIndex < fromIndex) {
-        for (int i = toIndex; i < fromIndex; i++) same.get(i).setPosition(i + 1);
-      } else {
-        for (int i = fromIndex + 1; i <= toIndex; i++) same.get(i).setPosition(i - 1);
-      }
-      task.setPosition(toIndex);
-      tasks.saveAll(same);
-      tasks.save(task);
-      return ResponseEntity.noContent().build();
+  // ---- Batch: ordered create/move/retitle/delete in one transaction ----
+  @PostMapping("/batch")
+  public List<BatchResult> batch(@PathVariable(required = false) Long projectId, @RequestBody List<BatchOperation> ops) {
+    if (ops.size() > MAX_BATCH) {
+      throw new ResponseStatusException(BAD_REQUEST, "At most " + MAX_BATCH + " operations per batch");
     }
+    return service.apply(board(projectId), ops);
+  }
 
-    // Cross-column:
-    // 1) close gap in old column
-    var from = tasks.findAllByStatusOrderByPositionAsc(fromStatus);
-    int fromIndex = indexOf(from, id);
-    for (int i = fromIndex + 1; i < from.size(); i++) from.get(i).setPosition(i - 1);
-    tasks.saveAll(from);
-
-    // 2) open gap in new column at toIndex
-    var to = tasks.findAllByStatusOrderByPositionAsc(toStatus);
-    toIndex = Math.max(0, Math.min(toIndex, to.size()));
-    for (int i = toIndex; i < to.size(); i++) to.get(i).setPosition(i + 1);
-    task.setStatus(toStatus);
-    task.setPosition(toIndex);
-    tasks.saveAll(to);
-    tasks.save(task);
+  // ---- Bulk import: NDJSON or CSV, streamed and written a chunk per transaction ----
+  @PostMapping(value = "/import", consumes = {TaskTransfer.Format.NDJSON_VALUE, TaskTransfer.Format.CSV_VALUE})
+  public ImportResult importTasks(@PathVariable(required = false) Long projectId,
+                                  @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                  InputStream body) throws IOException {
+    return transfer.importTasks(board(projectId), TaskTransfer.Format.forContentType(contentType), body);
+  }
 
-    return ResponseEntity.noContent().build();
+  // ---- Bulk export: ?format=ndjson|csv, written row by row from the cursor ----
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> export(@PathVariable(required = false) Long projectId,
+                                                      @RequestParam(defaultValue = "ndjson") String format) {
+    long project = board(projectId);
+    TaskTransfer.Format f = TaskTransfer.Format.of(format);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(f.contentType() + ";charset=UTF-8"))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"board-" + project + "." + f.name().toLowerCase(Locale.ROOT) + "\"")
+        .body(out -> transfer.export(project, f, out));
   }
 
-  // ---- Edit title/status (simple patch) ----
-  @PatchMapping("/{id}")
-  @Transactional
-  public Task update(@PathVariable long id, @RequestBody Map<String, String> body) {
-    var t = tasks.findById(id).orElseThrow();
-
-    if (body.containsKey("title")) t.setTitle(body.get("title"));
-
-    if (body.containsKey("status")) {
-      String to = body.get("status");
-      if (!Objects.equals(t.getStatus(), to)) {
-        // close gap in old column
-        var from = tasks.findAllByStatusOrderByPositionAsc(t.getStatus());
-        int fromIndex = indexOf(from, id);
-        for (int i = fromIndex + 1; i < from.size(); i++) from.get(i).setPosition(i - 1);
-        tasks.saveAll(from);
-
-        // append to bottom of new column
-        int max = tasks.findAllByStatusOrderByPositionAsc(to)
-                       .stream().map(Task::getPosition).max(Integer::compareTo).orElse(-1);
-        t.setStatus(to);
-        t.setPosition(max + 1);
-      }
+  // ---- Archived cards (see TaskArchive), newest completed first: ?after=<completedAt>_<id>&limit=n ----
+  @GetMapping("/archive")
+  public ArchivePage archived(@PathVariable(required = false) Long projectId,
+                              @RequestParam(required = false) String after,
+                              @RequestParam(defaultValue = "100") int limit) {
+    long project = board(projectId);
+    int n = Math.max(1, Math.min(limit, MAX_PAGE));
+    if (after == null || after.isBlank()) {
+      return archive.page(project, null, null, n);
+    }
+    int sep = after.lastIndexOf('_');
+    Instant completedAt;
+    long id;
+    try {
+      completedAt = Instant.parse(after.substring(0, sep));
+      id = Long.parseLong(after.substring(sep + 1));
+    } catch (DateTimeParseException | NumberFormatException | StringIndexOutOfBoundsException e) {
+      throw new ResponseStatusException(BAD_REQUEST, "Malformed cursor");
     }
-    return tasks.save(t);
+    return archive.page(project, completedAt, id, n);
+  }
+
+  // ---- Restore an archived card to the bottom of its old column, or of {"status": ..} ----
+  @PostMapping("/archive/{id}/restore")
+  public TaskView restore(@PathVariable(required = false) Long projectId, @PathVariable long id,
+                          @RequestBody(required = false) Map<String, String> body) {
+    return archive.restore(board(projectId), id, body == null ? null : body.get("status"));
   }
 
-  // ---- Delete (close gap in that column) ----
+  // ---- Delete (no gap to close: positions are sparse) ----
   @DeleteMapping("/{id}")
-  @Transactional
-  public ResponseEntity<Void> delete(@PathVariable long id) {
-    var t = tasks.findById(id).orElseThrow();
+  public ResponseEntity<Void> delete(@PathVariable(required = false) Long projectId, @PathVariable long id) {
+    service.delete(board(projectId), id);
+    return ResponseEntity.noContent().build();
+  }
 
-    var list = tasks.findAllByStatusOrderByPositionAsc(t.getStatus());
-    int idx = indexOf(list, id);
-    for (int i = idx + 1; i < list.size(); i++) list.get(i).setPosition(i - 1);
-    tasks.saveAll(list);
+  /**
+   * Whether the client's copy is at the board's version; the response is then a 304. When the
+   * body would come from a replica the tag is only compared: checkNotModified would also set it
+   * on the 200, over a body that may be older than the version.
+   */
+  private boolean notModified(WebRequest request, String etag) {
+    if (version.tagsReads()) return request.checkNotModified(etag);
+    String sent = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if (sent == null) return false;
+    String opaque = etag.substring(2); // our tags are weak; so is the comparison
+    for (String tag : sent.split(",")) {
+      tag = tag.trim();
+      if (!tag.equals("*") && !(tag.startsWith("W/") ? tag.substring(2) : tag).equals(opaque)) continue;
+      HttpServletResponse response = ((ServletWebRequest) request).getResponse();
+      response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+      response.setHeader(HttpHeaders.ETAG, etag);
+      return true;
+    }
+    return false;
+  }
 
-    tasks.deleteById(id);
-    return ResponseEntity.noContent().build();
+  private ResponseEntity.BodyBuilder ok(String etag) {
+    ResponseEntity.BodyBuilder ok = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+    return version.tagsReads() ? ok.eTag(etag) : ok;
+  }
+
+  /** The addressed project; someone else's is as unknown as a missing one (404). */
+  private long board(Long projectId) {
+    long id = projectId != null ? projectId : boards.defaultProjectId();
+    String user = SecurityContextHolder.getContext().getAuthentication().getName();
+    if (!boards.isVisibleTo(id, user)) throw new NoSuchElementException("Project not found");
+    boards.layout(id);
+    return id;
+  }
+
+  // ---- errors ----
+  // unknown project or task (a task of another project counts as unknown)
+  @ExceptionHandler(NoSuchElementException.class)
+  public ResponseEntity<Void> notFound() {
+    return ResponseEntity.status(NOT_FOUND).build();
+  }
+
+  // a column the project's board does not have
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<String> badColumn(IllegalArgumentException e) {
+    return ResponseEntity.status(BAD_REQUEST).body(e.getMessage());
+  }
+
+  // the change log no longer reaches back to the client's cursor
+  @ExceptionHandler(ChangeLog.CursorExpiredException.class)
+  public ResponseEntity<String> cursorExpired(ChangeLog.CursorExpiredException e) {
+    return ResponseEntity.status(GONE).body(e.getMessage());
   }
 
-  // ---- helpers ----
-  private static int indexOf(List<Task> list, long id) {
-    for (int i = 0; i < list.size(); i++) if (list.get(i).getId().equals(id)) return i;
-    throw new IllegalStateException("Task not in its ordered list");
+  // still conflicting after ColumnWrites' bounded retries: the client should reload and retry
+  @ExceptionHandler(ConcurrencyFailureException.class)
+  public ResponseEntity<Void> conflict() {
+    return ResponseEntity.status(CONFLICT).build();
   }
 }
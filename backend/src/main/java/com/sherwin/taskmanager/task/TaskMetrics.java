@@ -0,0 +1,24 @@
+package com.sherwin.taskmanager.task;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rows written per board operation ({@code board_rows_written_total{op=...}}), and moves folded
+ * into another move's write by {@link ReorderCoalescer} ({@code board_moves_coalesced_total}).
+ */
+@Component
+@RequiredArgsConstructor
+public class TaskMetrics {
+
+  private final MeterRegistry registry;
+
+  void rowsWritten(String op, int rows) {
+    if (rows > 0) registry.counter("board.rows.written", "op", op).increment(rows);
+  }
+
+  void coalesced() {
+    registry.counter("board.moves.coalesced").increment();
+  }
+}
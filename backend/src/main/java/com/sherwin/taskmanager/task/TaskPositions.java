@@ -0,0 +1,35 @@
+package com.sherwin.taskmanager.task;
+
+/**
+ * Sparse ranks for tasks within a column. Positions are spaced {@link #GAP} apart so a
+ * drop between two cards only has to write the moved card; the column is renumbered
+ * (see {@link ColumnRebalancer}) once neighbouring ranks get too close.
+ */
+final class TaskPositions {
+
+  static final long GAP = 1L << 16;
+
+  /** Below this distance to a neighbour the column is queued for a background rebalance. */
+  static final long MIN_GAP = 32;
+
+  private TaskPositions() { }
+
+  /** Rank after the current tail of a column ({@code null} when the column is empty). */
+  static long after(Long tail) {
+    return tail == null ? GAP : tail + GAP;
+  }
+
+  /** Rank strictly between two neighbours, or {@code null} if they are adjacent. */
+  static Long between(Long prev, Long next) {
+    if (prev == null && next == null) return GAP;
+    if (prev == null) return next - GAP;
+    if (next == null) return prev + GAP;
+    if (next - prev < 2) return null;
+    return prev + (next - prev) / 2;
+  }
+
+  /** True when a rank landed close enough to a neighbour that the column should be respaced. */
+  static boolean isCrowded(Long prev, long pos, Long next) {
+    return (prev != null && pos - prev < MIN_GAP) || (next != null && next - pos < MIN_GAP);
+  }
+}
@@ -1,8 +1,110 @@
 package com.sherwin.taskmanager.task;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+/**
+ * Column queries are a range scan of the (column_id, position) index, whatever else the table
+ * holds. Reads for the API select {@link TaskView}s; entities are only loaded to be written.
+ */
 public interface TaskRepository extends JpaRepository<Task, Long> {
-  List<Task> findAllByStatusOrderByPositionAsc(String status);
+  /** A project's whole board in one round-trip, ordered column-wise as its BoardColumns are. */
+  @Query("""
+      select new com.sherwin.taskmanager.task.TaskView(t.id, t.title, c.name, t.position)
+      from Task t join t.column c
+      where c.project.id = :projectId
+      order by c.position asc, t.position asc, t.id asc
+      """)
+  List<TaskView> findBoard(@Param("projectId") long projectId);
+
+  /** Same rows and order as {@link #findBoard(long)}, pulled from the cursor in fetch-size chunks. */
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+  @Query("""
+      select new com.sherwin.taskmanager.task.TaskView(t.id, t.title, c.name, t.position)
+      from Task t join t.column c
+      where c.project.id = :projectId
+      order by c.position asc, t.position asc, t.id asc
+      """)
+  Stream<TaskView> streamBoard(@Param("projectId") long projectId);
+
+  // ---- keyset pages of one column: (position, id) of the last row seen is the cursor ----
+  @Query("""
+      select new com.sherwin.taskmanager.task.TaskView(t.id, t.title, c.name, t.position)
+      from Task t join t.column c
+      where c.id = :columnId
+      order by t.position asc, t.id asc
+      """)
+  List<TaskView> findColumnPage(@Param("columnId") long columnId, Limit limit);
+
+  @Query("""
+      select new com.sherwin.taskmanager.task.TaskView(t.id, t.title, c.name, t.position)
+      from Task t join t.column c
+      where c.id = :columnId
+        and (t.position > :position or (t.position = :position and t.id > :id))
+      order by t.position asc, t.id asc
+      """)
+  List<TaskView> findColumnPageAfter(@Param("columnId") long columnId,
+                                     @Param("position") long position,
+                                     @Param("id") long id,
+                                     Limit limit);
+
+  List<Task> findAllByColumnIdOrderByPositionAscIdAsc(long columnId);
+
+  Optional<Task> findFirstByColumnIdOrderByPositionDescIdDesc(long columnId);
+
+  @Query("select new com.sherwin.taskmanager.task.ColumnKey(t.project.id, t.column.id) from Task t where t.id = :id")
+  Optional<ColumnKey> findColumnById(@Param("id") long id);
+
+  @Query("select distinct new com.sherwin.taskmanager.task.ColumnKey(t.project.id, t.column.id) from Task t where t.id in :ids")
+  List<ColumnKey> findColumnsByIdIn(@Param("ids") Collection<Long> ids);
+
+  Optional<Task> findFirstByColumnIdAndIdNotOrderByPositionDescIdDesc(long columnId, long excludeId);
+
+  /** The (at most) two cards around {@code offset} in a column, ignoring the card being moved. */
+  @Query("""
+      select t from Task t
+      where t.column.id = :columnId and t.id <> :excludeId
+      order by t.position asc, t.id asc
+      limit 2 offset :offset
+      """)
+  List<Task> findNeighbours(@Param("columnId") long columnId,
+                            @Param("excludeId") long excludeId,
+                            @Param("offset") int offset);
+
+  // ---- archiving (see TaskArchive) ----
+  /** Every project's column called {@code name}. */
+  @Query("select new com.sherwin.taskmanager.task.ColumnKey(c.project.id, c.id) from BoardColumn c where c.name = :name")
+  List<ColumnKey> findColumnsNamed(@Param("name") String name);
+
+  long countByColumnId(long columnId);
+
+  long countByColumnIdAndMovedAtBefore(long columnId, Instant cutoff);
+
+  /** The cards that have been in the column longest, a range scan of ix_task_moved. */
+  @Query("select t from Task t where t.column.id = :columnId order by t.movedAt asc, t.id asc")
+  List<Task> findLongestInColumn(@Param("columnId") long columnId, Limit limit);
+
+  /** A restored card, under the id it had; moved_at defaults to now. */
+  @Modifying
+  @Query(value = """
+      insert into task (id, project_id, column_id, title, position, version)
+      values (:id, :projectId, :columnId, :title, :position, 0)
+      """, nativeQuery = true)
+  void insert(@Param("id") long id,
+              @Param("projectId") long projectId,
+              @Param("columnId") long columnId,
+              @Param("title") String title,
+              @Param("position") long position);
 }
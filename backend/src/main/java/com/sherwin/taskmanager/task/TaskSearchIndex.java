@@ -0,0 +1,171 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.project.ProjectRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * In-process inverted index over task titles, one per project. Terms are kept sorted in a
+ * skip list, so every query term matches as a prefix with a range lookup instead of a
+ * {@code LIKE '%x%'} scan. A card matches when every query term prefixes one of its title
+ * words; whole-word matches rank above prefix matches, then shorter titles first.
+ * <p>
+ * Kept current from committed {@link TaskChange}s (every mutation path, batch included, goes
+ * through {@link TaskService}) and rebuilt from the database once the application is ready.
+ * Searches are lock-free; updates are serialized, which is cheap next to the writes behind them.
+ */
+@Slf4j
+@Component
+public class TaskSearchIndex {
+
+  public record Hit(long id, String title, String status, int score) {}
+
+  private record Doc(long projectId, String title, String status, Set<String> terms) {}
+
+  private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final TaskRepository tasks;
+  private final ProjectRepository projects;
+  private final TransactionTemplate readOnly;
+
+  private final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+  private final Map<Long, NavigableMap<String, Set<Long>>> termsByProject = new ConcurrentHashMap<>();
+  private Set<Long> touchedDuringRebuild; // guarded by this; non-null while rebuilding
+
+  public TaskSearchIndex(TaskRepository tasks, ProjectRepository projects, PlatformTransactionManager txManager) {
+    this.tasks = tasks;
+    this.projects = projects;
+    this.readOnly = new TransactionTemplate(txManager);
+    this.readOnly.setReadOnly(true);
+  }
+
+  /** Up to {@code limit} best matches for {@code query} on the project's board. */
+  public List<Hit> search(long projectId, String query, int limit) {
+    Set<String> words = tokenize(query);
+    NavigableMap<String, Set<Long>> terms = termsByProject.get(projectId);
+    if (words.isEmpty() || terms == null) return List.of();
+
+    // per query word: card -> best score for it; intersect starting from the smallest
+    List<Map<Long, Integer>> perWord = new ArrayList<>(words.size());
+    for (String w : words) {
+      Map<Long, Integer> scores = new HashMap<>();
+      for (Map.Entry<String, Set<Long>> e : terms.subMap(w, true, w + Character.MAX_VALUE, false).entrySet()) {
+        int score = e.getKey().length() == w.length() ? 3 : 1;
+        for (Long id : e.getValue()) scores.merge(id, score, Math::max);
+      }
+      if (scores.isEmpty()) return List.of();
+      perWord.add(scores);
+    }
+    perWord.sort(Comparator.comparingInt(Map::size));
+
+    List<Hit> hits = new ArrayList<>();
+    candidates:
+    for (Map.Entry<Long, Integer> c : perWord.get(0).entrySet()) {
+      int score = c.getValue();
+      for (int i = 1; i < perWord.size(); i++) {
+        Integer s = perWord.get(i).get(c.getKey());
+        if (s == null) continue candidates;
+        score += s;
+      }
+      Doc d = docs.get(c.getKey());
+      if (d != null) hits.add(new Hit(c.getKey(), d.title(), d.status(), score));
+    }
+    hits.sort(Comparator.comparingInt(Hit::score).reversed()
+        .thenComparingInt(h -> h.title().length())
+        .thenComparingLong(Hit::id));
+    return hits.size() > limit ? List.copyOf(hits.subList(0, limit)) : hits;
+  }
+
+  public int size() {
+    return docs.size();
+  }
+
+  // every change but REBALANCED carries the task's full searchable state
+  @TransactionalEventListener(fallbackExecution = true)
+  synchronized void onChange(TaskChange change) {
+    if (change.type() == TaskChange.Type.REBALANCED) return;
+    if (touchedDuringRebuild != null) touchedDuringRebuild.add(change.taskId());
+    if (change.type() == TaskChange.Type.DELETED) remove(change.taskId());
+    else put(change.projectId(), change.taskId(), change.title(), change.status());
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rebuild() {
+    long started = System.nanoTime();
+    synchronized (this) {
+      touchedDuringRebuild = new HashSet<>();
+    }
+    try {
+      for (long projectId : projects.findAllIds()) {
+        readOnly.executeWithoutResult(s -> {
+          try (Stream<TaskView> rows = tasks.streamBoard(projectId)) {
+            rows.forEach(t -> index(projectId, t));
+          }
+        });
+      }
+    } finally {
+      synchronized (this) {
+        touchedDuringRebuild = null;
+      }
+    }
+    log.info("Search index built: {} tasks in {} ms", docs.size(), (System.nanoTime() - started) / 1_000_000);
+  }
+
+  // a change committed while the rebuild was reading is newer than the row it read
+  private synchronized void index(long projectId, TaskView t) {
+    if (!touchedDuringRebuild.contains(t.id())) put(projectId, t.id(), t.title(), t.status());
+  }
+
+  private void put(long projectId, long id, String title, String status) {
+    Set<String> words = tokenize(title);
+    Doc old = docs.put(id, new Doc(projectId, title, status, words));
+    if (old != null && old.projectId() == projectId && old.terms().equals(words)) return;
+    if (old != null) unlink(id, old);
+    NavigableMap<String, Set<Long>> terms = termsByProject.computeIfAbsent(projectId, p -> new ConcurrentSkipListMap<>());
+    for (String w : words) terms.computeIfAbsent(w, k -> ConcurrentHashMap.newKeySet()).add(id);
+  }
+
+  private void remove(long id) {
+    Doc old = docs.remove(id);
+    if (old != null) unlink(id, old);
+  }
+
+  private void unlink(long id, Doc doc) {
+    NavigableMap<String, Set<Long>> terms = termsByProject.get(doc.projectId());
+    if (terms == null) return;
+    for (String w : doc.terms()) {
+      Set<Long> ids = terms.get(w);
+      if (ids == null) continue;
+      ids.remove(id);
+      if (ids.isEmpty()) terms.remove(w);
+    }
+  }
+
+  static Set<String> tokenize(String text) {
+    Set<String> words = new HashSet<>();
+    if (text == null) return words;
+    for (String w : SPLIT.split(text.toLowerCase(Locale.ROOT))) {
+      if (!w.isEmpty()) words.add(w);
+    }
+    return words;
+  }
+}
@@ -0,0 +1,396 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.board.BoardColumnRepository;
+import com.sherwin.taskmanager.board.Boards;
+import com.sherwin.taskmanager.project.ProjectRepository;
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.task.dto.BatchResult;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The JPA {@link BoardEngine}: reads are {@link TaskView} projections in read-only
+ * transactions, and mutations write through to the database. Every operation writes only the
+ * task it touches: positions are sparse (see {@link TaskPositions}), so nothing else in the
+ * column has to be renumbered.
+ * Writes go through {@link ColumnWrites}: serialized per column, parallel across columns,
+ * retried on optimistic-lock conflicts. Every operation is scoped to one project: its
+ * columns come from {@link Boards}, and a task id from another project is not found.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskService implements BoardEngine {
+
+  private final TaskRepository tasks;
+  private final ColumnRebalancer rebalancer;
+  private final ApplicationEventPublisher events;
+  private final ColumnWrites writes;
+  private final TaskMetrics metrics;
+  private final Boards boards;
+  private final ProjectRepository projects;
+  private final BoardColumnRepository columns;
+  private final BoardStreamer streamer;
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<TaskView> board(long projectId) {
+    return tasks.findBoard(projectId);
+  }
+
+  @Override
+  public void writeBoard(long projectId, OutputStream out) throws IOException {
+    streamer.writeBoard(projectId, out);
+  }
+
+  @Override
+  public void forEach(long projectId, Consumer<TaskView> row) {
+    streamer.forEach(projectId, row);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public ColumnPage column(long projectId, String status, Long afterPosition, Long afterId, int limit) {
+    long column = boards.columnId(projectId, status);
+    return ColumnPage.of(afterId == null
+        ? tasks.findColumnPage(column, Limit.of(limit))
+        : tasks.findColumnPageAfter(column, afterPosition, afterId, Limit.of(limit)), limit);
+  }
+
+  /** Append to the bottom of {@code status}, or of the project's first column when null. */
+  @Override
+  public TaskView create(long projectId, String title, String status) {
+    Task.checkTitle(title);
+    ColumnKey column = column(projectId, status);
+    return writes.run(() -> Set.of(column), cols -> view(create(column, title, new Tails())));
+  }
+
+  /** Move to another column, always to the bottom. */
+  @Override
+  public void move(long projectId, long id, String to) {
+    ColumnKey target = column(projectId, to);
+    onTask(projectId, id, target, t -> {
+      move(t, target, new Tails());
+      return t;
+    });
+  }
+
+  /** Precise insert at {@code index}, within or across columns. */
+  @Override
+  public void reorder(long projectId, long id, String toStatus, int toIndex) {
+    ColumnKey target = column(projectId, toStatus);
+    onTask(projectId, id, target, t -> {
+      reorder(t, target, toIndex);
+      return t;
+    });
+  }
+
+  /** Edit title and/or status; a status change appends to the bottom of the new column. */
+  @Override
+  public TaskView update(long projectId, long id, String title, String status) {
+    Task.checkTitle(title);
+    ColumnKey target = status == null ? null : column(projectId, status);
+    return onTask(projectId, id, target, t -> {
+      if (title != null) retitle(t, title);
+      if (target != null) move(t, target, new Tails());
+      return view(t);
+    });
+  }
+
+  @Override
+  public void delete(long projectId, long id) {
+    onTask(projectId, id, null, t -> {
+      delete(t);
+      return t;
+    });
+  }
+
+  /**
+   * Applies {@code ops} in order in one transaction. Referenced tasks are loaded with one
+   * query and column tails are tracked in memory, so the statements left are the writes
+   * themselves, which Hibernate sends as JDBC batches. A failing operation is reported in
+   * its result and does not stop the rest. Every column the batch touches is locked for
+   * its duration.
+   */
+  @Override
+  public List<BatchResult> apply(long projectId, List<BatchOperation> ops) {
+    List<Long> ids = ops.stream().map(BatchOperation::id).filter(Objects::nonNull).distinct().toList();
+    ColumnKey first = column(projectId, null);
+    return writes.run(() -> {
+      Set<ColumnKey> cols = ids.isEmpty() ? new HashSet<>() : new HashSet<>(tasks.findColumnsByIdIn(ids));
+      for (BatchOperation op : ops) {
+        if (op.status() != null && boards.hasColumn(projectId, op.status())) cols.add(column(projectId, op.status()));
+        else if (op.status() == null && "create".equals(op.op())) cols.add(first);
+      }
+      return cols;
+    }, cols -> apply(projectId, first, ops, ids, cols));
+  }
+
+  private List<BatchResult> apply(long projectId, ColumnKey first, List<BatchOperation> ops, List<Long> ids,
+                                  Set<ColumnKey> locked) {
+    Map<Long, Task> byId = new HashMap<>();
+    for (Task t : tasks.findAllById(ids)) {
+      if (t.getProject().getId() != projectId) continue; // another board's card: reported as not found
+      if (!locked.contains(ColumnKey.of(t))) throw columnChanged();
+      byId.put(t.getId(), t);
+    }
+    Tails tails = new Tails();
+
+    List<BatchResult> results = new ArrayList<>(ops.size());
+    for (int i = 0; i < ops.size(); i++) {
+      BatchOperation op = ops.get(i);
+      String name = op.op() == null ? "" : op.op();
+      if (op.status() != null && !boards.hasColumn(projectId, op.status())) {
+        results.add(BatchResult.failed(i, name, op.id(), "Unknown column"));
+        continue;
+      }
+      if (!Task.fits(op.title())) {
+        results.add(BatchResult.failed(i, name, op.id(), Task.TITLE_TOO_LONG));
+        continue;
+      }
+      ColumnKey target = op.status() == null ? null : column(projectId, op.status());
+      if (name.equals("create")) {
+        Task t = create(target == null ? first : target, op.title() == null ? "New Task" : op.title(), tails);
+        results.add(BatchResult.ok(i, name, t.getId()));
+        continue;
+      }
+      Task t = op.id() == null ? null : byId.get(op.id());
+      if (t == null) {
+        results.add(BatchResult.failed(i, name, op.id(), "Task not found"));
+        continue;
+      }
+      switch (name) {
+        case "move" -> {
+          if (target == null) {
+            results.add(BatchResult.failed(i, name, op.id(), "status is required"));
+            continue;
+          }
+          if (op.index() == null) {
+            move(t, target, tails);
+          } else {
+            reorder(t, target, op.index());
+            tails.forget(target);
+          }
+        }
+        case "retitle" -> {
+          if (op.title() == null) {
+            results.add(BatchResult.failed(i, name, op.id(), "title is required"));
+            continue;
+          }
+          retitle(t, op.title());
+        }
+        case "delete" -> {
+          delete(t);
+          byId.remove(t.getId());
+        }
+        default -> {
+          results.add(BatchResult.failed(i, name, op.id(), "Unknown op"));
+          continue;
+        }
+      }
+      results.add(BatchResult.ok(i, name, t.getId()));
+    }
+    return results;
+  }
+
+  @Override
+  public List<TaskView> archive(long projectId, String status, Collection<Long> ids, Consumer<List<TaskView>> archived) {
+    ColumnKey column = column(projectId, status);
+    return writes.run(() -> Set.of(column), cols -> {
+      List<Task> cards = tasks.findAllById(ids).stream().filter(t -> ColumnKey.of(t).equals(column)).toList();
+      List<TaskView> views = cards.stream().map(this::view).toList();
+      if (!views.isEmpty()) archived.accept(views);
+      for (Task t : cards) {
+        tasks.delete(t);
+        // to a client an archived card is gone from the board
+        events.publishEvent(change(TaskChange.Type.DELETED, t));
+      }
+      metrics.rowsWritten("archive", cards.size());
+      return views;
+    });
+  }
+
+  /** Inserted with its old id, so not through {@code save()}, which would take it for a detached entity. */
+  @Override
+  public TaskView restore(long projectId, long id, String title, String status, Runnable unarchive) {
+    ColumnKey column = column(projectId, status);
+    return writes.run(() -> Set.of(column), cols -> {
+      unarchive.run();
+      Task existing = tasks.findById(id).orElse(null);
+      if (existing != null) return view(existing);
+      long position = new Tails().next(column);
+      tasks.insert(id, projectId, column.columnId(), title, position);
+      metrics.rowsWritten("restore", 1);
+      TaskView restored = new TaskView(id, title, boards.columnName(projectId, column.columnId()), position);
+      events.publishEvent(new TaskChange(TaskChange.Type.CREATED, projectId, id, title, restored.status(), position));
+      return restored;
+    });
+  }
+
+  // ---- single-task steps shared by the endpoints above ----
+  private Task create(ColumnKey column, String title, Tails tails) {
+    Task t = new Task();
+    t.setProject(projects.getReferenceById(column.projectId()));
+    t.setTitle(title);
+    t.setColumn(columns.getReferenceById(column.columnId()));
+    t.setPosition(tails.next(column));
+    tasks.save(t);
+    metrics.rowsWritten("create", 1);
+    events.publishEvent(change(TaskChange.Type.CREATED, t));
+    return t;
+  }
+
+  private void move(Task t, ColumnKey to, Tails tails) {
+    if (ColumnKey.of(t).equals(to)) return;
+    t.setPosition(tails.next(to));
+    t.setColumn(columns.getReferenceById(to.columnId()));
+    t.setMovedAt(Instant.now());
+    metrics.rowsWritten("move", 1);
+    events.publishEvent(change(TaskChange.Type.MOVED, t));
+  }
+
+  private void reorder(Task t, ColumnKey column, int toIndex) {
+    long id = t.getId();
+    int index = Math.max(0, toIndex);
+
+    List<Task> around = neighbours(column, id, index);
+    Long prev = prevOf(around, index);
+    Long next = nextOf(around, index);
+
+    if (ColumnKey.of(t).equals(column) && fitsBetween(t.getPosition(), prev, next)) return;
+
+    Long pos = TaskPositions.between(prev, next);
+    if (pos == null) {
+      // no room left between the neighbours: respace the column now and look again
+      rebalancer.rebalance(column);
+      around = neighbours(column, id, index);
+      prev = prevOf(around, index);
+      next = nextOf(around, index);
+      pos = TaskPositions.between(prev, next);
+      events.publishEvent(rebalancer.rebalanced(column));
+    } else if (TaskPositions.isCrowded(prev, pos, next)) {
+      rebalancer.request(column);
+    }
+
+    if (!ColumnKey.of(t).equals(column)) t.setMovedAt(Instant.now());
+    t.setColumn(columns.getReferenceById(column.columnId()));
+    t.setPosition(pos);
+    metrics.rowsWritten("reorder", 1);
+    events.publishEvent(change(TaskChange.Type.MOVED, t));
+  }
+
+  private void retitle(Task t, String title) {
+    if (title.equals(t.getTitle())) return;
+    t.setTitle(title);
+    metrics.rowsWritten("retitle", 1);
+    events.publishEvent(change(TaskChange.Type.RETITLED, t));
+  }
+
+  private void delete(Task t) {
+    tasks.delete(t);
+    metrics.rowsWritten("delete", 1);
+    events.publishEvent(change(TaskChange.Type.DELETED, t));
+  }
+
+  // ---- helpers ----
+  /** The project's column named {@code status}, or its first column when null. */
+  private ColumnKey column(long projectId, String status) {
+    return new ColumnKey(projectId,
+        status == null ? boards.firstColumnId(projectId) : boards.columnId(projectId, status));
+  }
+
+  /** Column names come from {@link Boards}; reading {@code t.getColumn().getName()} would load the row. */
+  private String status(Task t) {
+    return boards.columnName(t.getProject().getId(), t.getColumn().getId());
+  }
+
+  private TaskView view(Task t) {
+    return new TaskView(t.getId(), t.getTitle(), status(t), t.getPosition());
+  }
+
+  private TaskChange change(TaskChange.Type type, Task t) {
+    return TaskChange.of(type, t, status(t));
+  }
+
+  /**
+   * Runs {@code work} on task {@code id} of the project with its current column (and
+   * {@code to}, if any) locked.
+   */
+  private <T> T onTask(long projectId, long id, ColumnKey to, Function<Task, T> work) {
+    return writes.run(() -> {
+      Set<ColumnKey> cols = new HashSet<>();
+      tasks.findColumnById(id).filter(c -> c.projectId() == projectId).ifPresent(cols::add);
+      if (to != null) cols.add(to);
+      return cols;
+    }, cols -> {
+      Task t = tasks.findById(id)
+          .filter(found -> found.getProject().getId() == projectId)
+          .orElseThrow(() -> new NoSuchElementException("Task not found"));
+      if (!cols.contains(ColumnKey.of(t))) throw columnChanged();
+      return work.apply(t);
+    });
+  }
+
+  /** The task moved between reading its column and locking it; {@link ColumnWrites} retries. */
+  private static OptimisticLockingFailureException columnChanged() {
+    return new OptimisticLockingFailureException("Task changed column concurrently");
+  }
+
+  /** Cards at {@code index - 1} and {@code index}; an index past the end means after the last card. */
+  private List<Task> neighbours(ColumnKey column, long id, int index) {
+    List<Task> around = tasks.findNeighbours(column.columnId(), id, Math.max(0, index - 1));
+    if (around.isEmpty() && index > 0) {
+      return tasks.findFirstByColumnIdAndIdNotOrderByPositionDescIdDesc(column.columnId(), id)
+          .map(List::of).orElse(List.of());
+    }
+    return around;
+  }
+
+  private static Long prevOf(List<Task> around, int index) {
+    return index > 0 && !around.isEmpty() ? around.get(0).getPosition() : null;
+  }
+
+  private static Long nextOf(List<Task> around, int index) {
+    int i = index > 0 ? 1 : 0;
+    return around.size() > i ? around.get(i).getPosition() : null;
+  }
+
+  private static boolean fitsBetween(long pos, Long prev, Long next) {
+    return (prev == null || prev < pos) && (next == null || pos < next);
+  }
+
+  /** Column tail positions, looked up once per column and then advanced in memory. */
+  private final class Tails {
+    private final Map<ColumnKey, Long> byColumn = new HashMap<>();
+
+    long next(ColumnKey column) {
+      long pos = TaskPositions.after(byColumn.containsKey(column)
+          ? byColumn.get(column)
+          : tasks.findFirstByColumnIdOrderByPositionDescIdDesc(column.columnId()).map(Task::getPosition).orElse(null));
+      byColumn.put(column, pos);
+      return pos;
+    }
+
+    void forget(ColumnKey column) {
+      byColumn.remove(column);
+    }
+  }
+}
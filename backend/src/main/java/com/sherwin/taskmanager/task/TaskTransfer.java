@@ -0,0 +1,220 @@
+package com.sherwin.taskmanager.task;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.task.dto.BatchResult;
+import com.sherwin.taskmanager.task.dto.ImportResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Bulk import and export of a board as NDJSON (one {@code {"title","status"}} object per line)
+ * or CSV (a header naming at least {@code title}; {@code status} is optional).
+ * <p>
+ * Import parses the body as it arrives and hands every {@code app.import.chunk-size} rows to
+ * {@link BoardEngine#apply} as a batch of creates: one transaction per chunk, column tails
+ * looked up once per chunk and advanced in memory, inserts sent as JDBC batches. Each chunk
+ * commits on its own, so a failure part-way keeps the chunks before it. Export writes the rows
+ * of {@link BoardEngine#forEach} as they come off the cursor. Neither holds more than a chunk.
+ */
+@Component
+public class TaskTransfer {
+
+  public enum Format {
+    NDJSON(Format.NDJSON_VALUE), CSV(Format.CSV_VALUE);
+
+    public static final String NDJSON_VALUE = "application/x-ndjson";
+    public static final String CSV_VALUE = "text/csv";
+
+    private final String contentType;
+
+    Format(String contentType) {
+      this.contentType = contentType;
+    }
+
+    public String contentType() {
+      return contentType;
+    }
+
+    /** By name, as in {@code ?format=csv}. */
+    public static Format of(String name) {
+      for (Format f : values()) if (f.name().equalsIgnoreCase(name)) return f;
+      throw new IllegalArgumentException("Unknown format '" + name + "'");
+    }
+
+    /** By request content type, parameters (charset) ignored. */
+    public static Format forContentType(String contentType) {
+      String type = contentType == null ? "" : contentType.split(";", 2)[0].trim();
+      for (Format f : values()) if (f.contentType.equalsIgnoreCase(type)) return f;
+      throw new IllegalArgumentException("Unsupported content type '" + type + "'");
+    }
+  }
+
+  static final int MAX_ERRORS = 100;
+  static final int MAX_LINE = 64 * 1024; // a body with no newline must not be read into memory whole
+
+  private final BoardEngine engine;
+  private final ObjectMapper json;
+  private final int chunkSize;
+
+  public TaskTransfer(BoardEngine engine, ObjectMapper json, @Value("${app.import.chunk-size:1000}") int chunkSize) {
+    this.engine = engine;
+    this.json = json;
+    this.chunkSize = chunkSize;
+  }
+
+  public ImportResult importTasks(long projectId, Format format, InputStream body) throws IOException {
+    BufferedReader in = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    Chunks chunks = new Chunks(projectId);
+    int row = 0;
+    if (format == Format.NDJSON) {
+      for (String line; (line = readLine(in, row + 1)) != null; ) {
+        row++;
+        if (line.isBlank()) continue;
+        JsonNode n;
+        try {
+          n = json.readTree(line);
+        } catch (JsonProcessingException e) {
+          chunks.reject(row, "malformed JSON");
+          continue;
+        }
+        if (!n.isObject()) chunks.reject(row, "not a JSON object");
+        else chunks.add(row, n.path("title").asText(null), n.path("status").asText(null));
+      }
+    } else {
+      List<String> header = Csv.read(in);
+      if (header == null) return chunks.finish();
+      int title = indexOf(header, "title");
+      int status = indexOf(header, "status");
+      if (title < 0) throw new IllegalArgumentException("CSV header must name a title column");
+      for (List<String> rec; (rec = Csv.read(in)) != null; ) {
+        row++;
+        if (rec.size() == 1 && rec.get(0).isEmpty()) continue; // blank line
+        chunks.add(row, field(rec, title), field(rec, status));
+      }
+    }
+    return chunks.finish();
+  }
+
+  /** The next line without its terminator, or null at the end of the body. */
+  private static String readLine(BufferedReader in, int row) throws IOException {
+    int c = in.read();
+    if (c == -1) return null;
+    StringBuilder line = new StringBuilder();
+    for (; c != -1 && c != '\n'; c = in.read()) {
+      if (line.length() == MAX_LINE) throw new IllegalArgumentException("NDJSON row " + row + " longer than " + MAX_LINE + " characters");
+      line.append((char) c);
+    }
+    int end = line.length();
+    if (end > 0 && line.charAt(end - 1) == '\r') line.setLength(end - 1);
+    return line.toString();
+  }
+
+  public void export(long projectId, Format format, OutputStream out) throws IOException {
+    Writer w = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+    try {
+      if (format == Format.CSV) {
+        Csv.write(w, "id", "title", "status", "position");
+        engine.forEach(projectId, t -> unchecked(() -> Csv.write(w, t.id(), t.title(), t.status(), t.position())));
+      } else {
+        ObjectWriter writer = json.writerFor(TaskView.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator gen = json.getFactory().createGenerator(w).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        engine.forEach(projectId, t -> unchecked(() -> {
+          writer.writeValue(gen, t);
+          gen.writeRaw('\n');
+        }));
+        gen.flush();
+      }
+      w.flush();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  /** Rows waiting to be created, flushed to the engine a chunk at a time. */
+  private final class Chunks {
+    private final long projectId;
+    private final List<BatchOperation> ops = new ArrayList<>(chunkSize);
+    private final List<Integer> rows = new ArrayList<>(chunkSize);
+    private final List<String> errors = new ArrayList<>();
+    private long imported;
+    private long failed;
+
+    Chunks(long projectId) {
+      this.projectId = projectId;
+    }
+
+    void add(int row, String title, String status) {
+      if (title == null || title.isBlank()) {
+        reject(row, "title is required");
+        return;
+      }
+      ops.add(new BatchOperation("create", null, title, status == null || status.isBlank() ? null : status, null));
+      rows.add(row);
+      if (ops.size() >= chunkSize) flush();
+    }
+
+    void reject(int row, String reason) {
+      failed++;
+      if (errors.size() < MAX_ERRORS) errors.add("row " + row + ": " + reason);
+    }
+
+    ImportResult finish() {
+      flush();
+      return new ImportResult(imported, failed, errors);
+    }
+
+    private void flush() {
+      if (ops.isEmpty()) return;
+      for (BatchResult r : engine.apply(projectId, ops)) {
+        if (r.ok()) imported++;
+        else reject(rows.get(r.index()), r.error());
+      }
+      ops.clear();
+      rows.clear();
+    }
+  }
+
+  private interface IoAction {
+    void run() throws IOException;
+  }
+
+  private static void unchecked(IoAction action) {
+    try {
+      action.run();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static int indexOf(List<String> header, String name) {
+    for (int i = 0; i < header.size(); i++) {
+      String h = header.get(i).replace("\uFEFF", "").trim(); // spreadsheets like to start with a BOM
+      if (h.toLowerCase(Locale.ROOT).equals(name)) return i;
+    }
+    return -1;
+  }
+
+  private static String field(List<String> rec, int index) {
+    return index >= 0 && index < rec.size() ? rec.get(index) : null;
+  }
+}
@@ -0,0 +1,7 @@
+package com.sherwin.taskmanager.task;
+
+/**
+ * Read-only shape of a task as the API returns it, built by constructor expressions straight
+ * from the query: no managed entity, no dirty-checking snapshot, no persistence-context entry.
+ */
+public record TaskView(Long id, String title, String status, Long position) {}
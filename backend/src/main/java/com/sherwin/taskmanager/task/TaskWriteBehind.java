@@ -0,0 +1,232 @@
+package com.sherwin.taskmanager.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistence behind {@link MemoryBoardEngine}. Each write is journaled (see
+ * {@link BoardJournal}) and parked here, coalesced per task: a card dragged ten times
+ * between flushes is written once. Every {@code app.board.flush-ms} the parked writes go to
+ * the task table as JDBC batches in one transaction, after which the journal segments they
+ * came from are deleted. The flush also writes each task's latest change to the
+ * {@link ChangeLog}, in the same transaction. On startup, whatever a previous process journaled but never flushed
+ * is replayed into the table before any board is loaded.
+ * <p>
+ * A flush that fails is retried a task at a time, so one row the table refuses does not hold
+ * back the others: that row is parked, that is logged at error with its content, counted in
+ * {@code board.writebehind.parked} and dropped. Any other failure keeps the writes and their
+ * journal for the next flush.
+ * <p>
+ * Task ids are taken from {@code task_seq} in blocks, the same way Hibernate's pooled
+ * optimizer takes them, so ids never collide with rows inserted through JPA.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.board.engine", havingValue = "memory")
+public class TaskWriteBehind {
+
+  private static final int ID_BLOCK = 50; // task_seq's allocationSize, see Task
+
+  private final JdbcTemplate jdbc;
+  private final ChangeLog changes;
+  private final TransactionTemplate tx;
+  private final BoardJournal journal;
+  private final String nextIdSql;
+  private final Counter parked;
+  private final ReadWriteLock swap = new ReentrantReadWriteLock();
+  private volatile Map<Long, BoardJournal.Entry> pending = new ConcurrentHashMap<>();
+  // a lock rather than synchronized: the refill is a JDBC round trip, and on JDK 21 a virtual
+  // thread blocked inside a monitor pins its carrier thread
+  private final Lock ids = new ReentrantLock();
+  private long nextId; // guarded by ids
+  private long lastId; // guarded by ids
+
+  public TaskWriteBehind(JdbcTemplate jdbc,
+                         ChangeLog changes,
+                         TransactionTemplate tx,
+                         EntityManagerFactory emf,
+                         ObjectMapper json,
+                         MeterRegistry registry,
+                         @Value("${app.board.journal.dir:data/journal}") Path dir,
+                         @Value("${app.board.journal.fsync:true}") boolean fsync) throws IOException {
+    this.jdbc = jdbc;
+    this.changes = changes;
+    this.tx = tx;
+    this.journal = new BoardJournal(dir, fsync, json);
+    this.nextIdSql = emf.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect()
+        .getSequenceSupport().getSequenceNextValString("task_seq");
+    Gauge.builder("board.writebehind.pending", this, w -> w.pending.size()).register(registry);
+    this.parked = Counter.builder("board.writebehind.parked")
+        .description("Task writes the table refused, dropped after logging").register(registry);
+  }
+
+  /** Replays what the previous process journaled but never flushed. */
+  @PostConstruct
+  void recover() throws IOException {
+    Map<Long, BoardJournal.Entry> latest = new LinkedHashMap<>();
+    for (BoardJournal.Entry e : journal.recovered()) latest.put(e.id(), e);
+    if (!latest.isEmpty()) {
+      Map<Long, BoardJournal.Entry> failed = write(latest);
+      if (!failed.isEmpty()) throw new IllegalStateException("Replaying " + failed.size() + " journaled task writes failed");
+      log.info("Replayed {} journaled task writes", latest.size());
+    }
+    journal.releaseRecovered();
+  }
+
+  public long nextId() {
+    ids.lock();
+    try {
+      if (nextId == 0 || nextId > lastId) {
+        long hi = jdbc.queryForObject(nextIdSql, Long.class);
+        // the block below the sequence's first value may overlap one Hibernate already took
+        while (hi <= ID_BLOCK + 1) hi = jdbc.queryForObject(nextIdSql, Long.class);
+        nextId = hi - ID_BLOCK + 1;
+        lastId = hi;
+      }
+      return nextId++;
+    } finally {
+      ids.unlock();
+    }
+  }
+
+  /** Journals {@code e} and parks it for the next flush; returns the journal sequence to await. */
+  long record(BoardJournal.Entry e) {
+    swap.readLock().lock();
+    try {
+      long seq = journal.append(e);
+      pending.put(e.id(), e);
+      return seq;
+    } finally {
+      swap.readLock().unlock();
+    }
+  }
+
+  void awaitDurable(long seq) {
+    journal.awaitDurable(seq);
+  }
+
+  @Scheduled(fixedDelayString = "${app.board.flush-ms:200}")
+  public void flush() {
+    Map<Long, BoardJournal.Entry> batch;
+    long roll;
+    swap.writeLock().lock();
+    try {
+      if (pending.isEmpty()) return;
+      batch = pending;
+      pending = new ConcurrentHashMap<>();
+      roll = journal.roll();
+    } finally {
+      swap.writeLock().unlock();
+    }
+    Map<Long, BoardJournal.Entry> failed = write(batch);
+    if (!failed.isEmpty()) {
+      // keep the writes (newer ones for the same task win) and the journal; retry next time
+      failed.forEach(pending::putIfAbsent);
+      log.warn("Write-behind flush of {} tasks failed; will retry", failed.size());
+      return;
+    }
+    journal.release(roll);
+  }
+
+  /**
+   * Writes {@code batch} in one transaction or, if that fails, one transaction per task,
+   * parking those the table refuses. Returns the writes to retry: from the first that failed
+   * for another reason on, as the database itself is then likely to fail the rest too.
+   */
+  private Map<Long, BoardJournal.Entry> write(Map<Long, BoardJournal.Entry> batch) {
+    try {
+      tx.executeWithoutResult(s -> persist(batch.values()));
+      return Map.of();
+    } catch (RuntimeException e) {
+      log.warn("Write-behind batch of {} tasks failed; writing them one at a time", batch.size(), e);
+    }
+    Map<Long, BoardJournal.Entry> failed = new LinkedHashMap<>();
+    for (BoardJournal.Entry e : batch.values()) {
+      if (!failed.isEmpty()) {
+        failed.put(e.id(), e);
+        continue;
+      }
+      try {
+        tx.executeWithoutResult(s -> persist(List.of(e)));
+      } catch (DataIntegrityViolationException refused) {
+        parked.increment();
+        log.error("Parked the write-behind of task {} of project {}, which the table refuses: {}",
+            e.id(), e.projectId(), e, refused);
+      } catch (RuntimeException other) {
+        failed.put(e.id(), e);
+      }
+    }
+    return failed;
+  }
+
+  @PreDestroy
+  void shutdown() throws IOException {
+    flush();
+    journal.close();
+  }
+
+  // ---- JDBC ----
+  private void persist(Collection<BoardJournal.Entry> entries) {
+    List<Object[]> deletes = new ArrayList<>();
+    List<BoardJournal.Entry> upserts = new ArrayList<>();
+    List<ChangeLogEntry> log = new ArrayList<>(entries.size());
+    for (BoardJournal.Entry e : entries) {
+      if (e.deleted()) deletes.add(new Object[]{e.id()});
+      else upserts.add(e);
+      log.add(e.deleted()
+          ? ChangeLogEntry.of(e.type(), e.projectId(), e.id(), null, null, null)
+          : ChangeLogEntry.of(e.type(), e.projectId(), e.id(), e.title(), e.columnId(), e.position()));
+    }
+    changes.append(log);
+    if (!deletes.isEmpty()) jdbc.batchUpdate("delete from task where id = ?", deletes);
+    if (upserts.isEmpty()) return;
+
+    int[] updated = jdbc.batchUpdate(
+        // a card that changed column is stamped with the flush time; inserts take the column default
+        """
+        update task set project_id = ?, column_id = ?, title = ?, position = ?,
+            moved_at = case when column_id = ? then moved_at else current_timestamp end,
+            version = version + 1
+        where id = ?
+        """,
+        upserts.stream()
+            .map(e -> new Object[]{e.projectId(), e.columnId(), e.title(), e.position(), e.columnId(), e.id()})
+            .toList());
+    List<Object[]> inserts = new ArrayList<>();
+    for (int i = 0; i < updated.length; i++) {
+      BoardJournal.Entry e = upserts.get(i);
+      if (updated[i] == 0) inserts.add(new Object[]{e.id(), e.projectId(), e.columnId(), e.title(), e.position()});
+    }
+    if (!inserts.isEmpty()) {
+      jdbc.batchUpdate(
+          "insert into task (id, project_id, column_id, title, position, version) values (?, ?, ?, ?, ?, 0)", inserts);
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.sherwin.taskmanager.task.dto;
+
+/**
+ * One step of {@code POST /api/tasks/batch}.
+ * <ul>
+ *   <li>{@code create}: title, status</li>
+ *   <li>{@code move}: id, status, optional index (bottom of the column when absent)</li>
+ *   <li>{@code retitle}: id, title</li>
+ *   <li>{@code delete}: id</li>
+ * </ul>
+ */
+public record BatchOperation(String op, Long id, String title, String status, Integer index) {}
@@ -0,0 +1,13 @@
+package com.sherwin.taskmanager.task.dto;
+
+/** Outcome of the operation at {@code index} in the request; {@code error} is null on success. */
+public record BatchResult(int index, String op, Long id, boolean ok, String error) {
+
+  public static BatchResult ok(int index, String op, Long id) {
+    return new BatchResult(index, op, id, true, null);
+  }
+
+  public static BatchResult failed(int index, String op, Long id, String error) {
+    return new BatchResult(index, op, id, false, error);
+  }
+}
@@ -0,0 +1,6 @@
+package com.sherwin.taskmanager.task.dto;
+
+import java.util.List;
+
+/** Outcome of an import: rows created, rows rejected, and the first rejections as "row n: reason" (a CSV header is not a row). */
+public record ImportResult(long imported, long failed, List<String> errors) {}
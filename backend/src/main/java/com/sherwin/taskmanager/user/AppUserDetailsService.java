@@ -11,16 +11,16 @@ import java.util.List;
 @RequiredArgsConstructor
 public class AppUserDetailsService implements UserDetailsService {
 
-  private final UserRepository users;
+  private final UserCache users;
 
   @Override
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    User u = users.findByEmail(username)
+    CachedUser u = users.findByEmail(username)
         .orElseThrow(() -> new UsernameNotFoundException("User not found"));
     return new org.springframework.security.core.userdetails.User(
-        u.getEmail(),
-        u.getPasswordHash(),
-        List.of(new SimpleGrantedAuthority("ROLE_" + u.getRole().name()))
+        u.email(),
+        u.passwordHash(),
+        List.of(new SimpleGrantedAuthority("ROLE_" + u.role().name()))
     );
   }
 }
@@ -0,0 +1,9 @@
+package com.sherwin.taskmanager.user;
+
+/** Immutable copy of the {@link User} fields authentication needs; safe to share between threads. */
+public record CachedUser(Long id, String email, String passwordHash, User.Role role) {
+
+  static CachedUser of(User u) {
+    return new CachedUser(u.getId(), u.getEmail(), u.getPasswordHash(), u.getRole());
+  }
+}
@@ -7,6 +7,7 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
+@EntityListeners(UserCacheInvalidator.class)
 @Table(name = "users", indexes = {
     @Index(name = "ux_users_email", columnList = "email", unique = true)
 })
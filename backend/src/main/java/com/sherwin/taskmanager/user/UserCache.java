@@ -0,0 +1,83 @@
+package com.sherwin.taskmanager.user;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Size- and TTL-bounded cache of users by email for the authentication paths. Concurrent
+ * misses for the same email share one database load; unknown emails are not cached.
+ * Entries are evicted whenever a {@link User} row is updated or deleted
+ * (see {@link UserCacheInvalidator}).
+ */
+@Component
+public class UserCache {
+
+  private final UserRepository users;
+  private final Cache<String, CachedUser> byEmail;
+
+  public UserCache(UserRepository users,
+                   @Value("${app.users.cache-size:10000}") long maxSize,
+                   @Value("${app.users.cache-ttl:PT5M}") Duration ttl,
+                   MeterRegistry meters) {
+    this.users = users;
+    this.byEmail = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttl)
+        .recordStats()
+        .build();
+    CaffeineCacheMetrics.monitor(meters, byEmail, "users");
+  }
+
+  public Optional<CachedUser> findByEmail(String email) {
+    return Optional.ofNullable(byEmail.get(email, e -> users.findByEmail(e).map(CachedUser::of).orElse(null)));
+  }
+
+  /** Hit, miss and eviction counts since startup (also exported as {@code cache_*{cache="users"}}). */
+  public CacheStats stats() {
+    return byEmail.stats();
+  }
+
+  public long size() {
+    return byEmail.estimatedSize();
+  }
+
+  /**
+   * Drops every entry for this user (by id too, in case the email itself changed). Repeated
+   * after commit so a login racing the update cannot re-cache the old row.
+   */
+  public void evict(User u) {
+    evict(u.getId(), u.getEmail());
+  }
+
+  /** As {@link #evict(User)}, for writes that bypass the entity listener (bulk updates). */
+  public void evict(CachedUser u) {
+    evict(u.id(), u.email());
+  }
+
+  private void evict(Long id, String email) {
+    evictNow(id, email);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evictNow(id, email);
+        }
+      });
+    }
+  }
+
+  private void evictNow(Long id, String email) {
+    if (email != null) byEmail.invalidate(email);
+    if (id != null) byEmail.asMap().values().removeIf(c -> id.equals(c.id()));
+  }
+}
@@ -0,0 +1,23 @@
+package com.sherwin.taskmanager.user;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * JPA listener on {@link User}: any password, role or email change evicts the cached copy.
+ * Instantiated by Hibernate through Spring; the cache is looked up lazily because the
+ * listener is created while the EntityManagerFactory the cache depends on is being built.
+ */
+@RequiredArgsConstructor
+public class UserCacheInvalidator {
+
+  private final ObjectProvider<UserCache> cache;
+
+  @PostUpdate
+  @PostRemove
+  void evict(User u) {
+    cache.ifAvailable(c -> c.evict(u));
+  }
+}
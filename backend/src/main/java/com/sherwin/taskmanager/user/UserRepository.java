@@ -1,9 +1,22 @@
 package com.sherwin.taskmanager.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByEmail(String email);
+
+  /**
+   * Replaces the hash only if it is still {@code expected}, so a password changed meanwhile is
+   * not overwritten. Bypasses {@link UserCacheInvalidator}: callers evict the cache themselves.
+   */
+  @Transactional
+  @Modifying
+  @Query("update User u set u.passwordHash = :hash where u.id = :id and u.passwordHash = :expected")
+  int replacePasswordHash(@Param("id") Long id, @Param("expected") String expected, @Param("hash") String hash);
 }
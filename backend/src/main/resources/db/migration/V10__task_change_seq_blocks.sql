@@ -0,0 +1,2 @@
+-- the change log takes one value per 50 rows of a transaction, see ChangeLog.append
+alter sequence task_change_seq increment by 50;
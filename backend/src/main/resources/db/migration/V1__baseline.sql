@@ -0,0 +1,45 @@
+-- Schema as ddl-auto=update left it before migrations; existing databases are baselined at this
+-- version (spring.flyway.baseline-on-migrate) and brought forward by the ones after it. Written
+-- for PostgreSQL; H2 runs it in MODE=PostgreSQL.
+
+-- pooled sequences: the increment is the entity's allocationSize
+create sequence project_seq start with 1 increment by 50;
+create sequence board_column_seq start with 1 increment by 50;
+
+create table users (
+    id            bigint generated by default as identity,
+    email         varchar(255) not null,
+    name          varchar(255) not null,
+    password_hash varchar(255) not null,
+    role          varchar(255) not null check (role in ('ADMIN', 'USER')),
+    primary key (id),
+    constraint ux_users_email unique (email)
+);
+
+create table project (
+    id          bigint       not null,
+    name        varchar(255) not null,
+    description varchar(255),
+    owner_id    bigint       not null,
+    created_at  timestamp(6) with time zone,
+    primary key (id),
+    constraint fk_project_owner foreign key (owner_id) references users (id)
+);
+
+create table board_column (
+    id         bigint       not null,
+    project_id bigint       not null,
+    name       varchar(255) not null,
+    position   integer      not null,
+    primary key (id),
+    constraint fk_board_column_project foreign key (project_id) references project (id)
+);
+
+-- one board: the column is the status name, ranks are dense per status
+create table task (
+    id       bigint generated by default as identity,
+    title    varchar(255) not null,
+    status   varchar(255) not null,
+    position integer      not null,
+    primary key (id)
+);
@@ -0,0 +1,7 @@
+-- positions spaced TaskPositions.GAP (65536) apart, in the order the dense ranks had them
+-- (ties by id), so a drag between two cards writes only the moved one
+alter table task alter column position set data type bigint;
+
+update task t set position = 65536 * (
+    select count(*) from task o
+    where o.status = t.status and (o.position < t.position or (o.position = t.position and o.id <= t.id)));
@@ -0,0 +1,3 @@
+-- optimistic lock for writers on other nodes, see ColumnWrites; existing cards start at 0,
+-- as Hibernate treats a null version as a card that was never saved
+alter table task add column version bigint default 0 not null;
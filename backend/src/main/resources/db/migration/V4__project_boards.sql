@@ -0,0 +1,22 @@
+-- every board belongs to a project; the cards so far go to the default project (the oldest,
+-- served at /api/tasks), created here for them when there is none yet, owned by the first user
+alter table board_column add constraint ux_board_column_name unique (project_id, name);
+
+insert into project (id, name, description, owner_id, created_at)
+select nextval('project_seq'), 'Default', 'Board served at /api/tasks', min(u.id), current_timestamp
+from users u
+where not exists (select 1 from project) and exists (select 1 from task)
+having min(u.id) is not null;
+
+insert into board_column (id, project_id, name, position)
+select nextval('board_column_seq'), p.id, c.name, c.position
+from (select min(id) as id from project) p
+cross join (values ('Todo', 0), ('In Progress', 1), ('Done', 2)) as c (name, position)
+where p.id is not null and not exists (select 1 from board_column b where b.project_id = p.id);
+
+alter table task add column project_id bigint;
+update task set project_id = (select min(id) from project);
+alter table task alter column project_id set not null;
+alter table task add constraint fk_task_project foreign key (project_id) references project (id);
+
+create index ix_task_project on task (project_id);
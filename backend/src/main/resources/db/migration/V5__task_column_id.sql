@@ -0,0 +1,18 @@
+-- the status is a column of the task's project, stored as its id. A status the project has no
+-- column for yet becomes one, after its other columns.
+insert into board_column (id, project_id, name, position)
+select nextval('board_column_seq'), s.project_id, s.status,
+       s.last + row_number() over (partition by s.project_id order by s.status)
+from (select distinct t.project_id, t.status,
+             (select coalesce(max(b.position), -1) from board_column b where b.project_id = t.project_id) as last
+      from task t
+      where not exists (select 1 from board_column b where b.project_id = t.project_id and b.name = t.status)) s;
+
+alter table task add column column_id bigint;
+update task t set column_id = (select b.id from board_column b where b.project_id = t.project_id and b.name = t.status);
+alter table task alter column column_id set not null;
+alter table task drop column status;
+alter table task add constraint fk_task_column foreign key (column_id) references board_column (id);
+
+-- every column read and write is a position range of one column_id
+create index ix_task_board on task (column_id, position);
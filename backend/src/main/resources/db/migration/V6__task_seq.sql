@@ -0,0 +1,3 @@
+-- pooled sequence instead of IDENTITY, so Hibernate can batch inserts (Task's allocationSize)
+alter table task alter column id drop identity;
+create sequence task_seq start with 1 increment by 50;
@@ -0,0 +1,17 @@
+-- change log (outbox): no foreign keys, rows outlive their tasks
+create sequence task_change_seq start with 1 increment by 1;
+
+create table task_change_log (
+    seq         bigint       not null,
+    project_id  bigint       not null,
+    task_id     bigint       not null,
+    type        varchar(16)  not null,
+    title       varchar(255),
+    column_id   bigint,
+    position    bigint,
+    recorded_at timestamp(6) with time zone not null,
+    primary key (seq)
+);
+
+create index ix_task_change_log_feed on task_change_log (project_id, seq);
+create index ix_task_change_log_recorded on task_change_log (recorded_at);
@@ -0,0 +1,6 @@
+-- when each card entered its current column: the age TaskArchive's policies go by.
+-- Existing cards start aging from this migration.
+alter table task add column moved_at timestamp(6) with time zone default current_timestamp not null;
+
+-- archive candidates: the cards of one column that have been there longest
+create index ix_task_moved on task (column_id, moved_at);
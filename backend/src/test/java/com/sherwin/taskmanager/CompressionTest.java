@@ -0,0 +1,60 @@
+package com.sherwin.taskmanager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sherwin.taskmanager.security.JwtService;
+import com.sherwin.taskmanager.task.BoardEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class CompressionTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BoardEngine engine;
+
+    @Autowired
+    private TestProjects projects;
+
+    @Autowired
+    private JwtService jwt;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void large_boards_are_gzipped_small_ones_are_not() throws Exception {
+        long large = projects.create("gzip", "Todo", "Done");
+        for (int i = 0; i < 100; i++) engine.create(large, "card number " + i, "Todo");
+        long small = projects.create("gzip", "Todo", "Done");
+        engine.create(small, "only card", "Todo");
+
+        HttpResponse<byte[]> zipped = get(large);
+        assertThat(zipped.headers().firstValue("Content-Encoding")).contains("gzip");
+        assertThat(zipped.headers().firstValue("ETag")).isPresent();
+        byte[] body = new GZIPInputStream(new ByteArrayInputStream(zipped.body())).readAllBytes();
+        assertThat(new ObjectMapper().readTree(body).size()).isEqualTo(100);
+        assertThat(zipped.body().length).isLessThan(body.length / 4);
+
+        assertThat(get(small).headers().firstValue("Content-Encoding")).isEmpty();
+    }
+
+    private HttpResponse<byte[]> get(long project) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/projects/" + project + "/tasks"))
+            .header("Authorization", "Bearer " + jwt.generate("admin@example.com", "ADMIN"))
+            .header("Accept-Encoding", "gzip")
+            .build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -0,0 +1,74 @@
+package com.sherwin.taskmanager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sherwin.taskmanager.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class MetricsEndpointTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper json;
+
+    @Autowired
+    private JwtService jwt;
+
+    @Test
+    void prometheus_exposes_auth_board_and_hibernate_meters() throws Exception {
+        String login = mvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"email":"admin@example.com","password":"admin123"}
+                """))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String admin = "Bearer " + json.readTree(login).get("token").asText();
+        mvc.perform(post("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, admin)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"title":"metered","status":"Todo"}
+                """))
+            .andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus").header(HttpHeaders.AUTHORIZATION, admin))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("auth_bcrypt_seconds_bucket")))
+            .andExpect(content().string(containsString("auth_jwt_verify_seconds_count")))
+            .andExpect(content().string(containsString("board_rows_written_total{op=\"create\"}")))
+            .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+            .andExpect(content().string(containsString("hibernate_statements_total")))
+            .andExpect(content().string(containsString("cache_gets_total{cache=\"users\"")))
+            .andExpect(content().string(containsString("application_ready_time_seconds")));
+    }
+
+    @Test
+    void only_health_is_public_and_the_other_endpoints_need_an_admin() throws Exception {
+        String user = "Bearer " + jwt.generate("user-" + UUID.randomUUID() + "@example.com", "USER");
+
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mvc.perform(get("/actuator/metrics").header(HttpHeaders.AUTHORIZATION, user)).andExpect(status().isForbidden());
+        mvc.perform(get("/actuator/info").header(HttpHeaders.AUTHORIZATION, user)).andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,74 @@
+package com.sherwin.taskmanager;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** Migrates a database as the pre-series app left it (V1) with cards on it to the current schema. */
+class MigrationTest {
+
+    private final String url = "jdbc:h2:mem:migrate-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+    private final JdbcTemplate jdbc = new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+
+    @BeforeEach
+    void preSeriesBoard() {
+        migrate("1");
+        jdbc.update("insert into users (email, name, password_hash, role) values ('admin@example.com', 'Admin', 'x', 'ADMIN')");
+        jdbc.update("""
+            insert into task (title, status, position) values
+                ('setup', 'Todo', 0), ('login', 'In Progress', 0), ('api', 'Done', 0),
+                ('blocked', 'Waiting', 0), ('docs', 'Todo', 1)
+            """);
+        migrate("latest");
+    }
+
+    @Test
+    void statuses_become_columns_of_the_default_project_in_the_same_order() {
+        assertThat(jdbc.queryForList("select name from board_column order by position", String.class))
+            .containsExactly("Todo", "In Progress", "Done", "Waiting");
+        assertThat(jdbc.queryForList("""
+                select t.title || ':' || b.name || ':' || t.position from task t
+                join board_column b on b.id = t.column_id and b.project_id = t.project_id
+                order by t.title
+                """, String.class))
+            .containsExactly("api:Done:65536", "blocked:Waiting:65536", "docs:Todo:131072",
+                "login:In Progress:65536", "setup:Todo:65536");
+        assertThat(jdbc.queryForObject("select count(distinct project_id) from task", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void cards_from_before_the_migration_can_be_updated_and_moved() {
+        assertThat(jdbc.queryForList("select version from task", Long.class)).containsOnly(0L);
+        long setup = jdbc.queryForObject("select id from task where title = 'setup'", Long.class);
+        long done = jdbc.queryForObject("select id from board_column where name = 'Done'", Long.class);
+
+        // an update as Hibernate sends it for a @Version entity: a null version matches no row
+        assertThat(jdbc.update("update task set title = 'set up', version = 1 where id = ? and version = 0", setup))
+            .isEqualTo(1);
+        // a move as the write-behind sends it
+        assertThat(jdbc.update("update task set column_id = ?, version = version + 1 where id = ?", done, setup))
+            .isEqualTo(1);
+
+        assertThat(jdbc.queryForObject("select version from task where id = ?", Long.class, setup)).isEqualTo(2);
+    }
+
+    @Test
+    void task_seq_starts_past_the_identity_ids() {
+        long max = jdbc.queryForObject("select max(id) from task", Long.class);
+        // Hibernate's pooled optimizer uses the 50 ids up to the value it fetches
+        assertThat(jdbc.queryForObject("select nextval('task_seq')", Long.class) - 49).isGreaterThan(max);
+    }
+
+    private void migrate(String target) {
+        Flyway.configure().dataSource(url, "sa", "")
+            .locations("classpath:db/migration", "classpath:db/vendor/h2")
+            .target(target)
+            .load().migrate();
+    }
+}
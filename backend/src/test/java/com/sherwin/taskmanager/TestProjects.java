@@ -0,0 +1,27 @@
+package com.sherwin.taskmanager;
+
+import com.sherwin.taskmanager.project.ProjectService;
+import com.sherwin.taskmanager.user.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/** Fresh projects owned by the seeded admin, so each test gets a board no other test writes to. */
+@Component
+public class TestProjects {
+
+    private final ProjectService projects;
+    private final UserRepository users;
+
+    public TestProjects(ProjectService projects, UserRepository users) {
+        this.projects = projects;
+        this.users = users;
+    }
+
+    /** A project named {@code prefix-<random>} with {@code columns}, or the default ones if none are given; returns its id. */
+    public long create(String prefix, String... columns) {
+        return projects.create(prefix + "-" + UUID.randomUUID(), null, users.findByEmail("admin@example.com").orElseThrow(),
+            columns.length == 0 ? ProjectService.DEFAULT_COLUMNS : List.of(columns)).getId();
+    }
+}
@@ -0,0 +1,207 @@
+package com.sherwin.taskmanager.auth;
+
+import com.sherwin.taskmanager.user.CachedUser;
+import com.sherwin.taskmanager.user.User;
+import com.sherwin.taskmanager.user.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "app.auth.workers=1",
+    "app.auth.queue=1",
+    "app.auth.timeout=PT2S"
+})
+@AutoConfigureMockMvc
+class PasswordVerifierTest {
+
+    @Autowired
+    private PasswordVerifier verifier;
+
+    @Autowired
+    private GatedEncoder encoder;
+
+    @Autowired
+    private UserRepository users;
+
+    @Autowired
+    private MeterRegistry meters;
+
+    @Autowired
+    private MockMvc mvc;
+
+    private final ExecutorService clients = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void drain() throws Exception {
+        encoder.open();
+        clients.shutdown();
+        assertThat(clients.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        while (meters.get("auth.bcrypt.queue").gauge().value() > 0) Thread.sleep(10);
+    }
+
+    @Test
+    void a_login_past_a_full_queue_is_shed_with_503_and_retry_after() throws Exception {
+        CachedUser user = user(encoder.encode("secret"));
+        double shed = shed();
+        encoder.close();
+
+        clients.execute(() -> matchQuietly(user)); // takes the only worker
+        assertThat(encoder.entered.tryAcquire(5, TimeUnit.SECONDS)).isTrue();
+        clients.execute(() -> matchQuietly(user)); // takes the only queue slot
+        while (meters.get("auth.bcrypt.queue").gauge().value() < 1) Thread.sleep(10);
+
+        mvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"email\":\"admin@example.com\",\"password\":\"admin123\"}"))
+            .andExpect(status().isServiceUnavailable())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2")); // one running, one queued, one worker
+        assertThat(shed()).isEqualTo(shed + 1);
+    }
+
+    @Test
+    void a_check_that_outlasts_the_timeout_is_given_up_and_shed() {
+        CachedUser user = user(encoder.encode("secret"));
+        double shed = shed();
+        encoder.close();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> verifier.matches("secret", user))
+            .isInstanceOfSatisfying(LoginThrottledException.class, e -> assertThat(e.getRetryAfterSeconds()).isPositive());
+
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.SECONDS.toNanos(2));
+        assertThat(shed()).isEqualTo(shed + 1);
+    }
+
+    @Test
+    void a_hash_of_another_cost_is_rewritten_at_the_configured_one_after_a_login() throws Exception {
+        CachedUser user = user(new BCryptPasswordEncoder(4).encode("secret"));
+
+        assertThat(verifier.matches("secret", user)).isTrue();
+
+        String hash = user.passwordHash();
+        for (int i = 0; i < 500 && PasswordVerifier.cost(hash) == 4; i++) {
+            Thread.sleep(10);
+            hash = users.findById(user.id()).orElseThrow().getPasswordHash();
+        }
+        assertThat(PasswordVerifier.cost(hash)).isEqualTo(10);
+        assertThat(encoder.matches("secret", hash)).isTrue();
+    }
+
+    @Test
+    void a_password_changed_before_the_rehash_lands_is_kept() throws Exception {
+        CachedUser user = user(new BCryptPasswordEncoder(4).encode("secret"));
+        User u = users.findById(user.id()).orElseThrow();
+        String changed = encoder.encode("changed");
+        u.setPasswordHash(changed);
+        users.save(u);
+
+        // the login still holds the old hash
+        assertThat(verifier.matches("secret", user)).isTrue();
+
+        Thread.sleep(500);
+        assertThat(users.findById(user.id()).orElseThrow().getPasswordHash()).isEqualTo(changed);
+    }
+
+    @Test
+    void a_wrong_password_leaves_the_hash_alone() throws Exception {
+        CachedUser user = user(new BCryptPasswordEncoder(4).encode("secret"));
+
+        assertThat(verifier.matches("wrong", user)).isFalse();
+
+        Thread.sleep(200);
+        assertThat(users.findById(user.id()).orElseThrow().getPasswordHash()).isEqualTo(user.passwordHash());
+    }
+
+    @Test
+    void cost_is_read_from_a_bcrypt_hash_and_anything_else_has_none() {
+        assertThat(PasswordVerifier.cost(new BCryptPasswordEncoder(4).encode("x"))).isEqualTo(4);
+        assertThat(PasswordVerifier.cost("$2b$12$abcdefghijklmnopqrstuv")).isEqualTo(12);
+        assertThat(PasswordVerifier.cost("$2a$xy$abcdefghijklmnopqrstuv")).isEqualTo(-1);
+        assertThat(PasswordVerifier.cost("{noop}secret")).isEqualTo(-1);
+        assertThat(PasswordVerifier.cost("$2a$1")).isEqualTo(-1);
+        assertThat(PasswordVerifier.cost(null)).isEqualTo(-1);
+    }
+
+    private CachedUser user(String hash) {
+        User u = new User();
+        u.setEmail("verifier-" + UUID.randomUUID() + "@example.com");
+        u.setName("Verifier");
+        u.setPasswordHash(hash);
+        u = users.save(u);
+        return new CachedUser(u.getId(), u.getEmail(), hash, u.getRole());
+    }
+
+    private void matchQuietly(CachedUser user) {
+        try {
+            verifier.matches("secret", user);
+        } catch (LoginThrottledException e) {
+            // given up on while the gate was closed
+        }
+    }
+
+    private double shed() {
+        return meters.get("auth.login.shed").counter().count();
+    }
+
+    /** BCrypt whose matches() can be held until the test lets it through. */
+    static class GatedEncoder extends BCryptPasswordEncoder {
+
+        final Semaphore entered = new Semaphore(0);
+        private volatile CountDownLatch gate = new CountDownLatch(0);
+
+        void close() {
+            entered.drainPermits();
+            gate = new CountDownLatch(1);
+        }
+
+        void open() {
+            gate.countDown();
+        }
+
+        @Override
+        public boolean matches(CharSequence raw, String hash) {
+            entered.release();
+            try {
+                gate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // cancelled after the timeout
+                return false;
+            }
+            return super.matches(raw, hash);
+        }
+    }
+
+    @TestConfiguration
+    static class Gate {
+
+        @Bean
+        @Primary
+        GatedEncoder gatedEncoder() {
+            return new GatedEncoder();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.sherwin.taskmanager.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ConnectionGateTest {
+
+    private final JdbcDataSource h2 = new JdbcDataSource();
+
+    ConnectionGateTest() {
+        h2.setURL("jdbc:h2:mem:gate");
+    }
+
+    @Test
+    void callers_beyond_the_queue_are_refused_until_a_connection_is_closed() throws Exception {
+        ConnectionGate gate = new ConnectionGate(h2, 1, 0, Duration.ofSeconds(1));
+
+        Connection first = gate.getConnection();
+        assertThatThrownBy(gate::getConnection).isInstanceOf(ConnectionGate.BusyException.class);
+
+        first.close();
+        first.close(); // a second close must not hand out a second permit
+        try (Connection again = gate.getConnection()) {
+            assertThat(again.isValid(1)).isTrue();
+            assertThatThrownBy(gate::getConnection).isInstanceOf(ConnectionGate.BusyException.class);
+        }
+    }
+
+    @Test
+    void a_queued_caller_gives_up_after_the_timeout() throws Exception {
+        ConnectionGate gate = new ConnectionGate(h2, 1, 10, Duration.ofMillis(50));
+
+        try (Connection held = gate.getConnection()) {
+            long start = System.nanoTime();
+            assertThatThrownBy(gate::getConnection)
+                .isInstanceOf(ConnectionGate.BusyException.class)
+                .hasMessageContaining("Timed out");
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.sherwin.taskmanager.config;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.sql.Connection;
+import java.time.Duration;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class DatabaseBusyHandlerTest {
+
+    private final ConnectionGate gate;
+    private final MockMvc mvc;
+
+    DatabaseBusyHandlerTest() {
+        JdbcDataSource h2 = new JdbcDataSource();
+        h2.setURL("jdbc:h2:mem:busy");
+        // one connection, nobody queues for it
+        gate = new ConnectionGate(h2, 1, 0, Duration.ofSeconds(1));
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(gate));
+        mvc = MockMvcBuilders.standaloneSetup(new Probe(tx, new JdbcTemplate(gate)))
+            .setControllerAdvice(new DatabaseBusyHandler())
+            .build();
+    }
+
+    @Test
+    void a_request_the_gate_turns_away_gets_503_with_retry_after() throws Exception {
+        try (Connection held = gate.getConnection()) {
+            mvc.perform(get("/probe"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+        }
+        mvc.perform(get("/probe")).andExpect(status().isOk());
+    }
+
+    /** A handler that needs a connection, the way every board read does. */
+    @RestController
+    static class Probe {
+
+        private final TransactionTemplate tx;
+        private final JdbcTemplate jdbc;
+
+        Probe(TransactionTemplate tx, JdbcTemplate jdbc) {
+            this.tx = tx;
+            this.jdbc = jdbc;
+        }
+
+        @GetMapping("/probe")
+        Integer probe() {
+            return tx.execute(s -> jdbc.queryForObject("select 1", Integer.class));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.sherwin.taskmanager.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sherwin.taskmanager.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class IdempotencyFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JwtService jwt;
+
+    @Autowired
+    private ObjectMapper json;
+
+    @Test
+    void retry_with_the_same_key_replays_the_response_without_running_again() throws Exception {
+        String user = "Bearer " + jwt.generate("admin@example.com", "ADMIN");
+        String key = UUID.randomUUID().toString();
+
+        String first = mvc.perform(create(user, key))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED))
+            .andReturn().getResponse().getContentAsString();
+        String retried = mvc.perform(create(user, key))
+            .andExpect(status().isOk())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"))
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+            .andReturn().getResponse().getContentAsString();
+        assertThat(retried).isEqualTo(first);
+
+        // a new key, or no key, runs again
+        String other = mvc.perform(create(user, UUID.randomUUID().toString()))
+            .andReturn().getResponse().getContentAsString();
+        assertThat(id(other)).isNotEqualTo(id(first));
+
+        // the key is scoped to the method and path: deleting the card with it is a new request
+        mvc.perform(delete("/api/tasks/{id}", id(first))
+                .header(HttpHeaders.AUTHORIZATION, user)
+                .header(IdempotencyFilter.HEADER, key))
+            .andExpect(status().isNoContent())
+            .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED));
+    }
+
+    @Test
+    void final_errors_are_replayed_too() throws Exception {
+        String user = "Bearer " + jwt.generate("admin@example.com", "ADMIN");
+        String key = UUID.randomUUID().toString();
+
+        // unlike 409, 429 and 5xx, which do run again
+        mvc.perform(delete("/api/tasks/{id}", 999_999_999).header(HttpHeaders.AUTHORIZATION, user).header(IdempotencyFilter.HEADER, key))
+            .andExpect(status().isNotFound());
+        mvc.perform(delete("/api/tasks/{id}", 999_999_999).header(HttpHeaders.AUTHORIZATION, user).header(IdempotencyFilter.HEADER, key))
+            .andExpect(status().isNotFound())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"));
+    }
+
+    @Test
+    void replays_carry_the_cors_headers_once() throws Exception {
+        String user = "Bearer " + jwt.generate("admin@example.com", "ADMIN");
+        String key = UUID.randomUUID().toString();
+        String origin = "http://localhost:5173";
+
+        MockHttpServletResponse first = mvc.perform(create(user, key).header(HttpHeaders.ORIGIN, origin))
+            .andExpect(status().isOk())
+            .andExpect(header().stringValues(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin))
+            .andReturn().getResponse();
+        MockHttpServletResponse retried = mvc.perform(create(user, key).header(HttpHeaders.ORIGIN, origin))
+            .andExpect(status().isOk())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"))
+            .andExpect(header().stringValues(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin))
+            .andReturn().getResponse();
+        assertThat(retried.getHeaders(HttpHeaders.VARY)).isEqualTo(first.getHeaders(HttpHeaders.VARY));
+        assertThat(retried.getHeaders(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS)).containsExactly("true");
+    }
+
+    @Test
+    void a_key_reused_with_another_body_is_refused() throws Exception {
+        String user = "Bearer " + jwt.generate("admin@example.com", "ADMIN");
+        String key = UUID.randomUUID().toString();
+
+        mvc.perform(create(user, key)).andExpect(status().isOk());
+        mvc.perform(post("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, user)
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"something else\",\"status\":\"Todo\"}"))
+            .andExpect(status().isUnprocessableEntity())
+            .andExpect(header().doesNotExist(IdempotencyFilter.REPLAYED));
+        // the stored response is still there for a true retry
+        mvc.perform(create(user, key))
+            .andExpect(status().isOk())
+            .andExpect(header().string(IdempotencyFilter.REPLAYED, "true"));
+    }
+
+    private long id(String body) throws Exception {
+        return json.readTree(body).get("id").asLong();
+    }
+
+    private static MockHttpServletRequestBuilder create(String bearer, String key) {
+        return post("/api/tasks")
+            .header(HttpHeaders.AUTHORIZATION, bearer)
+            .header(IdempotencyFilter.HEADER, key)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"retried\",\"status\":\"Todo\"}");
+    }
+}
@@ -0,0 +1,138 @@
+package com.sherwin.taskmanager.config;
+
+import com.sherwin.taskmanager.security.JwtService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "spring.datasource.url=" + ReadReplicaRoutingTest.PRIMARY,
+    "app.datasource.replica.urls=" + ReadReplicaRoutingTest.REPLICA,
+    "app.datasource.replica.read-your-writes=PT1M"
+})
+@AutoConfigureMockMvc
+class ReadReplicaRoutingTest {
+
+    static final String PRIMARY = "jdbc:h2:mem:rw-primary;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+    static final String REPLICA = "jdbc:h2:mem:rw-replica;DB_CLOSE_DELAY=-1;MODE=PostgreSQL";
+
+    static {
+        // a replica has the schema before the app starts reading from it
+        Flyway.configure().dataSource(REPLICA, "sa", "").locations("classpath:db/migration", "classpath:db/vendor/h2").load().migrate();
+    }
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private JwtService jwt;
+
+    @Autowired
+    private MockMvc mvc;
+
+    /** Stands in for replication: copies the primary, as it is now, onto the replica. */
+    @BeforeEach
+    void replicate() throws Exception {
+        List<String> script = new JdbcTemplate(dataSource).queryForList("SCRIPT", String.class);
+        try (Connection replica = DriverManager.getConnection(REPLICA, "sa", "");
+             Statement st = replica.createStatement()) {
+            st.execute("DROP ALL OBJECTS");
+            for (String sql : script) st.execute(sql);
+        }
+    }
+
+    @Test
+    void read_only_transactions_use_the_replica_and_the_rest_the_primary() {
+        assertThat(urlIn(true)).startsWith("jdbc:h2:mem:rw-replica");
+        assertThat(urlIn(false)).startsWith("jdbc:h2:mem:rw-primary");
+    }
+
+    @Test
+    void a_recent_writer_reads_its_own_write_from_the_primary() throws Exception {
+        String writer = "Bearer " + jwt.generate("writer-" + UUID.randomUUID() + "@example.com", "USER");
+        String reader = "Bearer " + jwt.generate("reader-" + UUID.randomUUID() + "@example.com", "USER");
+        String title = "ryw " + UUID.randomUUID();
+
+        mvc.perform(post("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, writer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"status\":\"Todo\"}"))
+            .andExpect(status().isOk());
+
+        mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, writer))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].title", hasItem(title)));
+        // nothing has been replicated yet, so anyone else still sees the replica's board
+        mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, reader))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].title", not(hasItem(title))));
+    }
+
+    @Test
+    void a_board_read_from_a_lagging_replica_is_not_tagged_with_the_new_version() throws Exception {
+        String writer = "Bearer " + jwt.generate("writer-" + UUID.randomUUID() + "@example.com", "USER");
+        String reader = "Bearer " + jwt.generate("reader-" + UUID.randomUUID() + "@example.com", "USER");
+        String title = "lag " + UUID.randomUUID();
+
+        mvc.perform(post("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, writer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"" + title + "\",\"status\":\"Todo\"}"))
+            .andExpect(status().isOk());
+
+        // the stale board carries no tag, so the reader has nothing to pin it with
+        mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, reader))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].title", not(hasItem(title))))
+            .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        String etag = mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, writer))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotNull();
+
+        replicate();
+
+        mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, reader))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[*].title", hasItem(title)));
+        // a tag from a primary read still revalidates while the board is unchanged
+        mvc.perform(get("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, reader)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+    }
+
+    private String urlIn(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(txManager);
+        tx.setReadOnly(readOnly);
+        return tx.execute(s -> new JdbcTemplate(dataSource).execute((Connection c) -> c.getMetaData().getURL()));
+    }
+}
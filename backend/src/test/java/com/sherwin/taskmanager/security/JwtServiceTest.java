@@ -0,0 +1,47 @@
+package com.sherwin.taskmanager.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "test-secret-0123456789abcdef-0123456789";
+
+    private final JwtService jwt = new JwtService(SECRET, 100, new SimpleMeterRegistry());
+
+    @Test
+    void verify_returns_subject_and_role_claims() {
+        String token = jwt.generate("ann@example.com", "ADMIN");
+
+        assertThat(jwt.verify(token)).hasValueSatisfying(v -> {
+            assertThat(v.subject()).isEqualTo("ann@example.com");
+            assertThat(v.role()).isEqualTo("ADMIN");
+        });
+        // second call is served from the cache and must agree
+        assertThat(jwt.verify(token)).map(VerifiedToken::subject).contains("ann@example.com");
+    }
+
+    @Test
+    void verify_rejects_tampered_and_expired_tokens() {
+        String token = jwt.generate("ann@example.com", "USER");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        String expired = Jwts.builder()
+            .setSubject("ann@example.com")
+            .setExpiration(new Date(System.currentTimeMillis() - 1000))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+            .compact();
+
+        assertThat(jwt.verify(tampered)).isEmpty();
+        assertThat(jwt.verify(expired)).isEmpty();
+        assertThat(jwt.verify("not-a-jwt")).isEmpty();
+    }
+}
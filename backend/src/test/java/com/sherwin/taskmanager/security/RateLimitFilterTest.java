@@ -0,0 +1,62 @@
+package com.sherwin.taskmanager.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+    "app.ratelimit.write.per-second=0.1",
+    "app.ratelimit.write.burst=2"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+class RateLimitFilterTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JwtService jwt;
+
+    @Test
+    void writes_over_the_limit_get_429_without_touching_reads_or_other_users() throws Exception {
+        String flooder = "Bearer " + jwt.generate("flood-" + UUID.randomUUID() + "@example.com", "USER");
+        String other = "Bearer " + jwt.generate("other-" + UUID.randomUUID() + "@example.com", "USER");
+
+        mvc.perform(create(flooder)).andExpect(status().isOk());
+        mvc.perform(create(flooder)).andExpect(status().isOk());
+        mvc.perform(create(flooder))
+            .andExpect(status().isTooManyRequests())
+            .andExpect(header().string(HttpHeaders.RETRY_AFTER, "10"));
+
+        mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, flooder)).andExpect(status().isOk());
+        mvc.perform(create(other)).andExpect(status().isOk());
+
+        mvc.perform(get("/actuator/prometheus")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt.generate("admin@example.com", "ADMIN")))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("ratelimit_throttled_total{class=\"write\"} 1.0")));
+    }
+
+    private static MockHttpServletRequestBuilder create(String bearer) {
+        return post("/api/tasks")
+            .header(HttpHeaders.AUTHORIZATION, bearer)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"title\":\"flood\",\"status\":\"Todo\"}");
+    }
+}
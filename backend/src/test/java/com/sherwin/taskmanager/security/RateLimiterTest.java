@@ -0,0 +1,31 @@
+package com.sherwin.taskmanager.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+
+    @Test
+    void burst_is_admitted_then_refused_with_the_wait_for_the_next_token() {
+        RateLimiter limiter = new RateLimiter(1, 3, 1000);
+
+        for (int i = 0; i < 3; i++) assertThat(limiter.tryAcquire("ann")).isZero();
+        assertThat(limiter.tryAcquire("ann")).isPositive().isLessThanOrEqualTo(TimeUnit.SECONDS.toNanos(1));
+        assertThat(limiter.tryAcquire("bob")).as("buckets are per client").isZero();
+    }
+
+    @Test
+    void refused_client_is_admitted_again_after_the_wait() throws Exception {
+        RateLimiter limiter = new RateLimiter(200, 1, 1000);
+
+        long wait;
+        while ((wait = limiter.tryAcquire("ann")) == 0) {
+            // a slow machine can take a whole interval between two calls; drain until refused
+        }
+        TimeUnit.NANOSECONDS.sleep(wait);
+        assertThat(limiter.tryAcquire("ann")).isZero();
+    }
+}
@@ -0,0 +1,162 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.TestProjects;
+import com.sherwin.taskmanager.security.JwtService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// over a real connector: the streams are written with non-blocking I/O, which MockMvc does not do
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+    properties = {"app.events.queue-size=16", "server.tomcat.threads.max=10"})
+class BoardEventsTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private BoardEvents events;
+
+    @Autowired
+    private BoardEngine engine;
+
+    @Autowired
+    private TestProjects projects;
+
+    @Autowired
+    private JwtService jwt;
+
+    private final HttpClient http = HttpClient.newHttpClient();
+
+    @Test
+    void pushes_committed_changes_and_replays_after_last_event_id() throws Exception {
+        long board = projects.create("events");
+        HttpResponse<Stream<String>> live = subscribe(board, null);
+
+        engine.create(board, "pushed", "Todo");
+
+        String event = awaitEvent(live, "event:created");
+        assertThat(event).contains("\"title\":\"pushed\"");
+
+        // resume from just before that event: it is replayed from the ring
+        int at = event.indexOf("id:");
+        long id = Long.parseLong(event.substring(at + 3, event.indexOf('\n', at)).trim());
+        HttpResponse<Stream<String>> resumed = subscribe(board, id - 1);
+        assertThat(awaitEvent(resumed, "id:" + id)).contains("pushed");
+    }
+
+    @Test
+    void resumed_with_an_id_from_before_a_restart_start_with_a_reset() throws Exception {
+        long board = projects.create("events");
+        // ids of this process start at its boot time: 42 is from an earlier one, or bogus
+        assertThat(awaitEvent(subscribe(board, 42L), "event:reset")).contains("event:reset");
+        assertThat(awaitEvent(subscribe(board, Long.MAX_VALUE), "event:reset")).contains("event:reset");
+    }
+
+    @Test
+    void subscribers_that_never_read_hold_no_thread_and_are_dropped() throws Exception {
+        long board = projects.create("events");
+        int subscribed = events.subscriberCount();
+        int stalled = 50; // on at most 10 request threads
+        List<Socket> sockets = new ArrayList<>();
+        try {
+            for (int i = 0; i < stalled; i++) sockets.add(openAndNeverRead(board));
+            await(() -> events.subscriberCount() >= subscribed + stalled);
+            int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+
+            // far more than the socket buffers hold, so every stream stalls and its queue overflows
+            String title = "x".repeat(64 * 1024);
+            int peak = threads;
+            for (int i = 0; i < 200; i++) {
+                events.onChange(new TaskChange(TaskChange.Type.CREATED, board, i, title, "Todo", 0L));
+                peak = Math.max(peak, ManagementFactory.getThreadMXBean().getThreadCount());
+            }
+            assertThat(Thread.getAllStackTraces().values())
+                .noneMatch(stack -> Arrays.stream(stack).anyMatch(f -> f.getClassName().startsWith(BoardEvents.class.getName() + "$")));
+
+            await(() -> events.subscriberCount() <= subscribed);
+            assertThat(peak).isLessThan(threads + 10);
+        } finally {
+            for (Socket s : sockets) s.close();
+        }
+    }
+
+    private HttpResponse<Stream<String>> subscribe(long board, Long lastEventId) throws Exception {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(url(board)))
+            .header("Authorization", bearer());
+        if (lastEventId != null) req.header("Last-Event-ID", lastEventId.toString());
+        HttpResponse<Stream<String>> res = http.send(req.build(), HttpResponse.BodyHandlers.ofLines());
+        assertThat(res.statusCode()).isEqualTo(200);
+        assertThat(res.headers().firstValue("Content-Type")).hasValueSatisfying(t -> assertThat(t).startsWith("text/event-stream"));
+        return res;
+    }
+
+    /** The first whole event (up to its blank line) containing {@code needle}. */
+    private static String awaitEvent(HttpResponse<Stream<String>> res, String needle) throws Exception {
+        Iterator<String> lines = res.body().iterator();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                StringBuilder event = new StringBuilder();
+                while (lines.hasNext()) {
+                    String line = lines.next();
+                    if (!line.isEmpty()) {
+                        event.append(line).append('\n');
+                    } else if (event.indexOf(needle) >= 0) {
+                        return event.toString();
+                    } else {
+                        event.setLength(0);
+                    }
+                }
+                return event.toString();
+            }).get(5, TimeUnit.SECONDS);
+        } finally {
+            res.body().close();
+        }
+    }
+
+    private Socket openAndNeverRead(long board) throws Exception {
+        Socket s = new Socket();
+        s.setReceiveBufferSize(4096);
+        s.connect(new InetSocketAddress("localhost", port));
+        OutputStream out = s.getOutputStream();
+        out.write(("GET " + URI.create(url(board)).getPath() + " HTTP/1.1\r\n"
+            + "Host: localhost\r\n"
+            + "Authorization: " + bearer() + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+        return s;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        for (int i = 0; i < 100 && !condition.getAsBoolean(); i++) Thread.sleep(50);
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private String url(long board) {
+        return "http://localhost:" + port + "/api/projects/" + board + "/tasks/events";
+    }
+
+    private String bearer() {
+        return "Bearer " + jwt.generate("admin@example.com", "ADMIN");
+    }
+}
@@ -0,0 +1,147 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.TestProjects;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "app.changes.settle=PT0S")
+class ChangeLogTest {
+
+    @Autowired
+    private TaskService service;
+
+    @Autowired
+    private ChangeLog changes;
+
+    @Autowired
+    private ChangeLogRepository entries;
+
+    @Autowired
+    private TestProjects projects;
+
+    @Autowired
+    private PlatformTransactionManager txManager;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long board;
+
+    @BeforeEach
+    void newBoard() {
+        board = projects.create("changes", "Todo", "Done");
+    }
+
+    @Test
+    void feed_returns_only_changes_after_the_cursor_latest_per_task() {
+        long a = service.create(board, "a", "Todo").id();
+        long cursor = changes.head().next();
+
+        long b = service.create(board, "b", "Todo").id();
+        service.move(board, a, "Done");
+        service.update(board, a, "a2", null);
+        service.delete(board, b);
+        service.create(projects.create("changes", "Todo", "Done"), "elsewhere", "Todo");
+
+        ChangeFeed feed = changes.since(board, cursor, 100);
+        assertThat(feed.changes())
+            .extracting(ChangeFeed.Change::taskId, ChangeFeed.Change::type, ChangeFeed.Change::title, ChangeFeed.Change::status)
+            .containsExactly(
+                tuple(a, TaskChange.Type.RETITLED, "a2", "Done"),
+                tuple(b, TaskChange.Type.DELETED, "b", "Todo"));
+        assertThat(feed.more()).isFalse();
+
+        ChangeFeed caughtUp = changes.since(board, feed.next(), 100);
+        assertThat(caughtUp.changes()).isEmpty();
+        assertThat(caughtUp.next()).isEqualTo(feed.next());
+    }
+
+    @Test
+    void a_cursor_taken_before_loading_the_board_misses_nothing_made_in_between() {
+        long cursor = changes.head().next();
+        long between = service.create(board, "between", "Todo").id();
+        List<TaskView> loaded = service.board(board);
+        long after = service.create(board, "after", "Todo").id();
+
+        assertThat(loaded).extracting(TaskView::id).containsExactly(between);
+        // the card made in between comes again, which is harmless, and the one after is not missed
+        assertThat(changes.since(board, cursor, 100).changes()).extracting(ChangeFeed.Change::taskId)
+            .containsExactly(between, after);
+    }
+
+    @Test
+    void a_page_ends_at_the_first_row_still_settling() {
+        long cursor = changes.head().next();
+        service.create(board, "settling", "Todo");
+        long settling = changes.since(board, cursor, 100).next();
+        service.create(board, "settled", "Todo");
+        // as if its transaction had just committed, after the later one
+        jdbc.update("update task_change_log set recorded_at = ? where seq = ?",
+            Timestamp.from(Instant.now().plusSeconds(60)), settling);
+
+        ChangeFeed feed = changes.since(board, cursor, 100);
+        assertThat(feed.changes()).isEmpty();
+        assertThat(feed.next()).isEqualTo(cursor);
+        assertThat(feed.more()).isFalse();
+        assertThat(changes.head().next()).isLessThan(settling);
+
+        jdbc.update("update task_change_log set recorded_at = ? where seq = ?", Timestamp.from(Instant.now()), settling);
+        assertThat(changes.since(board, cursor, 100).changes()).extracting(ChangeFeed.Change::title)
+            .containsExactly("settling", "settled");
+    }
+
+    @Test
+    void full_page_reports_more_and_resumes_from_next() {
+        long cursor = changes.head().next();
+        for (int i = 0; i < 5; i++) service.create(board, "card " + i, "Todo");
+
+        ChangeFeed first = changes.since(board, cursor, 3);
+        ChangeFeed rest = changes.since(board, first.next(), 3);
+
+        assertThat(first.more()).isTrue();
+        assertThat(first.changes()).hasSize(3);
+        assertThat(rest.more()).isFalse();
+        assertThat(rest.changes()).extracting(ChangeFeed.Change::title).containsExactly("card 3", "card 4");
+    }
+
+    @Test
+    void rows_of_one_transaction_are_numbered_from_one_block_as_it_commits() {
+        long cursor = changes.head().next();
+        new TransactionTemplate(txManager).executeWithoutResult(s -> {
+            for (int i = 0; i < 3; i++) service.create(board, "tx " + i, "Todo");
+            // nothing is written until the commit
+            assertThat(entries.findFeed(board, cursor, Limit.of(10))).isEmpty();
+        });
+
+        List<Long> seqs = changes.since(board, cursor, 10).changes().stream().map(ChangeFeed.Change::seq).toList();
+        assertThat(seqs).hasSize(3);
+        assertThat(seqs.get(2) - seqs.get(0)).isEqualTo(2);
+    }
+
+    @Test
+    void cursor_before_the_purged_rows_is_expired() {
+        service.create(board, "old", "Todo");
+        long stale = changes.head().next() - 1;
+        service.create(board, "new", "Todo");
+
+        entries.purgeBefore(Instant.now().plusSeconds(1)); // everything but the newest row
+
+        assertThatThrownBy(() -> changes.since(board, stale, 100))
+            .isInstanceOf(ChangeLog.CursorExpiredException.class);
+        assertThat(changes.since(board, changes.head().next(), 100).changes()).isEmpty();
+    }
+}
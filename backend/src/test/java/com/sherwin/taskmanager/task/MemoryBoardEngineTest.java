@@ -0,0 +1,241 @@
+package com.sherwin.taskmanager.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sherwin.taskmanager.TestProjects;
+import com.sherwin.taskmanager.board.Boards;
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.task.dto.BatchResult;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+    "app.board.engine=memory",
+    "app.board.flush-ms=3600000"
+})
+class MemoryBoardEngineTest {
+
+    @TempDir
+    static Path journalDir;
+
+    @DynamicPropertySource
+    static void journal(DynamicPropertyRegistry registry) {
+        registry.add("app.board.journal.dir", () -> journalDir.toString());
+    }
+
+    @Autowired
+    private BoardEngine engine;
+
+    @Autowired
+    private TaskService jpa;
+
+    @Autowired
+    private TaskWriteBehind writeBehind;
+
+    @Autowired
+    private ChangeLogRepository changes;
+
+    @Autowired
+    private TestProjects projects;
+
+    @Autowired
+    private ObjectMapper json;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private BoardVersion version;
+
+    @Autowired
+    private TaskSearchIndex search;
+
+    @Autowired
+    private Boards boards;
+
+    @Autowired
+    private MeterRegistry meters;
+
+    private long board;
+
+    @BeforeEach
+    void newBoard() {
+        board = projects.create("memory");
+    }
+
+    @Test
+    void writes_are_served_from_memory_and_reach_the_table_on_flush() {
+        assertThat(engine).isInstanceOf(MemoryBoardEngine.class);
+        long a = engine.create(board, "a", "Todo").id();
+        long b = engine.create(board, "b", "Todo").id();
+        long c = engine.create(board, "c", "Todo").id();
+        long d = engine.create(board, "d", null).id();
+
+        engine.reorder(board, c, "Todo", 0);
+        engine.move(board, a, "Done");
+        engine.update(board, b, "b2", null);
+        engine.delete(board, d);
+
+        assertThat(engine.board(board)).extracting(TaskView::id).containsExactly(c, b, a);
+        assertThat(jpa.board(board)).isEmpty(); // nothing flushed yet
+
+        writeBehind.flush();
+
+        assertThat(jpa.board(board)).containsExactlyElementsOf(engine.board(board));
+        assertThat(jpa.board(board)).extracting(TaskView::title).containsExactly("c", "b2", "a");
+        // one change log row per flushed task, in the flush's transaction
+        assertThat(changes.findFeed(board, 0, Limit.unlimited()))
+            .extracting(ChangeLogEntry::getTaskId, ChangeLogEntry::getType)
+            .containsExactlyInAnyOrder(
+                tuple(a, TaskChange.Type.MOVED), tuple(b, TaskChange.Type.RETITLED),
+                tuple(c, TaskChange.Type.MOVED), tuple(d, TaskChange.Type.DELETED));
+    }
+
+    @Test
+    void repeated_drops_into_one_gap_rebalance_in_memory() {
+        for (int i = 0; i < 3; i++) engine.create(board, "card " + i, "Todo");
+
+        for (int i = 0; i < 40; i++) {
+            List<TaskView> now = engine.board(board);
+            engine.reorder(board, now.get(now.size() - 1).id(), "Todo", 1);
+        }
+        writeBehind.flush();
+
+        List<TaskView> cards = engine.board(board);
+        assertThat(cards).extracting(TaskView::position).isSorted().doesNotHaveDuplicates();
+        assertThat(jpa.board(board)).containsExactlyElementsOf(cards);
+    }
+
+    @Test
+    void archive_and_restore_go_through_memory_and_the_write_behind() {
+        long a = engine.create(board, "a", "Todo").id();
+        long b = engine.create(board, "b", "Todo").id();
+        writeBehind.flush();
+        Instant longAgo = Instant.now().minus(Duration.ofDays(40));
+        jdbc.update("update task set moved_at = ? where id in (?, ?)", Timestamp.from(longAgo), a, b);
+
+        engine.move(board, a, "Done");
+        engine.update(board, b, "b2", null);
+        writeBehind.flush();
+        // the flush stamps a card that changed column, and only that one
+        assertThat(movedAt(a)).isAfter(longAgo.plus(Duration.ofDays(39)));
+        assertThat(movedAt(b)).isBefore(longAgo.plusSeconds(1));
+
+        List<TaskView> handedOver = new ArrayList<>();
+        List<TaskView> archived = engine.archive(board, "Done", List.of(a, b), handedOver::addAll);
+        assertThat(archived).extracting(TaskView::id).containsExactly(a); // b is not in Done
+        assertThat(handedOver).isEqualTo(archived);
+        assertThat(engine.board(board)).extracting(TaskView::id).containsExactly(b);
+
+        engine.restore(board, a, "a", "Todo", () -> {});
+        writeBehind.flush();
+        assertThat(jpa.board(board)).extracting(TaskView::id, TaskView::status)
+            .containsExactly(tuple(b, "Todo"), tuple(a, "Todo"));
+    }
+
+    @Test
+    void a_title_longer_than_the_column_is_refused_before_it_is_journaled() {
+        long kept = engine.create(board, "kept", "Todo").id();
+        String etag = version.etag(board);
+        String tooLong = "x".repeat(Task.MAX_TITLE + 1);
+
+        assertThatThrownBy(() -> engine.create(board, tooLong, "Todo")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> engine.update(board, kept, tooLong, null)).isInstanceOf(IllegalArgumentException.class);
+        List<BatchResult> results = engine.apply(board, List.of(
+            new BatchOperation("create", null, tooLong, null, null),
+            new BatchOperation("retitle", kept, tooLong, null, null),
+            new BatchOperation("create", null, "x".repeat(Task.MAX_TITLE), null, null)));
+
+        assertThat(results).extracting(BatchResult::ok).containsExactly(false, false, true);
+        assertThat(results.get(0).error()).isEqualTo(Task.TITLE_TOO_LONG);
+        assertThat(version.etag(board)).isNotEqualTo(etag); // the last create only
+        writeBehind.flush();
+        assertThat(jpa.board(board)).extracting(TaskView::title).containsExactly("kept", "x".repeat(Task.MAX_TITLE));
+    }
+
+    @Test
+    void a_write_the_table_refuses_is_parked_and_the_rest_of_the_flush_goes_through() {
+        double parked = meters.get("board.writebehind.parked").counter().count();
+        long refused = writeBehind.nextId();
+        writeBehind.record(BoardJournal.Entry.of(TaskChange.Type.CREATED, board, refused,
+            boards.firstColumnId(board), TaskPositions.GAP, "x".repeat(Task.MAX_TITLE + 1)));
+        long fine = engine.create(board, "fine", "Todo").id();
+
+        writeBehind.flush();
+
+        assertThat(jpa.board(board)).extracting(TaskView::id).containsExactly(fine);
+        assertThat(meters.get("board.writebehind.parked").counter().count()).isEqualTo(parked + 1);
+        assertThat(meters.get("board.writebehind.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    @DirtiesContext // the journal stays failed
+    void a_write_the_journal_fails_is_never_published_and_later_writes_are_refused() throws Exception {
+        long kept = engine.create(board, "kept", "Todo").id();
+        String etag = version.etag(board);
+
+        // the next segment cannot be created: the roll fails, and every journal write after it
+        FileSystemUtils.deleteRecursively(journalDir);
+        try {
+            assertThatThrownBy(writeBehind::flush).isInstanceOf(UncheckedIOException.class);
+            assertThatThrownBy(() -> engine.create(board, "unjournaled", "Todo")).isInstanceOf(UncheckedIOException.class);
+
+            assertThat(version.etag(board)).isEqualTo(etag);
+            assertThat(search.search(board, "unjournaled", 10)).isEmpty();
+
+            assertThatThrownBy(() -> engine.move(board, kept, "Done"))
+                .isInstanceOf(UncheckedIOException.class)
+                .hasMessageContaining("refused");
+            assertThat(engine.board(board)).filteredOn(t -> t.id() == kept).extracting(TaskView::status).containsExactly("Todo");
+            assertThat(version.etag(board)).isEqualTo(etag);
+        } finally {
+            Files.createDirectories(journalDir); // for the temp dir's own cleanup
+        }
+    }
+
+    @Test
+    void journal_recovers_entries_and_skips_a_torn_tail(@TempDir Path dir) throws Exception {
+        try (BoardJournal journal = new BoardJournal(dir, true, json)) {
+            journal.append(BoardJournal.Entry.of(TaskChange.Type.CREATED, 1, 10, 100, 65536, "first"));
+            journal.roll();
+            journal.awaitDurable(journal.append(BoardJournal.Entry.deleted(1, 10)));
+        }
+        try (var files = Files.list(dir)) {
+            Path last = files.sorted().reduce((x, y) -> y).orElseThrow();
+            Files.writeString(last, "{\"id\":11,\"dele", StandardOpenOption.APPEND); // crash mid-line
+        }
+
+        try (BoardJournal reopened = new BoardJournal(dir, true, json)) {
+            assertThat(reopened.recovered()).containsExactly(
+                BoardJournal.Entry.of(TaskChange.Type.CREATED, 1, 10, 100, 65536, "first"),
+                BoardJournal.Entry.deleted(1, 10));
+        }
+    }
+
+    private Instant movedAt(long id) {
+        return jdbc.queryForObject("select moved_at from task where id = ?", Timestamp.class, id).toInstant();
+    }
+}
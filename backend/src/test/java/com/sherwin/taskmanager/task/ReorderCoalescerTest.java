@@ -0,0 +1,60 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.TestProjects;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = "app.board.coalesce-window=PT1S")
+class ReorderCoalescerTest {
+
+    @Autowired
+    private ReorderCoalescer moves;
+
+    @Autowired
+    private TaskService service;
+
+    @Autowired
+    private TestProjects projects;
+
+    @Autowired
+    private MeterRegistry meters;
+
+    @Test
+    void a_burst_of_moves_for_one_card_applies_only_the_last_target_once() throws Exception {
+        long board = projects.create("coalesce");
+        long a = service.create(board, "a", "Todo").id();
+        long b = service.create(board, "b", "Todo").id();
+        double coalesced = meters.counter("board.moves.coalesced").count();
+        double moved = meters.counter("board.rows.written", "op", "move").count();
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<?> first = pool.submit(() -> moves.move(board, a, "In Progress"));
+            TimeUnit.MILLISECONDS.sleep(100);
+            Future<?> second = pool.submit(() -> moves.move(board, a, "Done"));
+            TimeUnit.MILLISECONDS.sleep(100);
+            Future<?> last = pool.submit(() -> moves.reorder(board, a, "Todo", 0));
+            for (Future<?> f : List.of(first, second, last)) f.get(5, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(service.board(board)).extracting(TaskView::id, TaskView::status)
+            .containsExactly(tuple(a, "Todo"), tuple(b, "Todo"));
+        assertThat(meters.counter("board.moves.coalesced").count() - coalesced).isEqualTo(2);
+        assertThat(meters.counter("board.rows.written", "op", "move").count()).isEqualTo(moved); // neither move ran
+        assertThatThrownBy(() -> moves.move(board, a, "Nowhere")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,131 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.TestProjects;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+    "app.archive.columns[Done].max-age=P30D",
+    "app.archive.columns[Done].keep=2",
+    "app.archive.batch-size=1",
+    "app.archive.delay-ms=3600000"
+})
+class TaskArchiveTest {
+
+    @Autowired
+    private TaskService service;
+
+    @Autowired
+    private TaskArchive archive;
+
+    @Autowired
+    private TestProjects projects;
+
+    @Autowired
+    private ArchivedTaskRepository archived;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    private long board;
+
+    @BeforeEach
+    void newBoard() {
+        board = projects.create("archive");
+    }
+
+    @Test
+    void run_archives_cards_past_max_age_and_beyond_keep_longest_in_the_column_first() {
+        long a = service.create(board, "a", "Todo").id();
+        long b = service.create(board, "b", "Done").id();
+        service.create(board, "c", "Done");
+        service.create(board, "d", "Done");
+        long todo = service.create(board, "old todo", "Todo").id();
+        service.move(board, a, "Done"); // entered Done last, but has been done for 40 days below
+        movedAgo(a, Duration.ofDays(40));
+        movedAgo(todo, Duration.ofDays(40)); // not a policy column
+
+        archive.run();
+
+        // keep=2 leaves two Done cards; a is the oldest, then b
+        assertThat(service.board(board)).extracting(TaskView::title).containsExactly("old todo", "c", "d");
+        ArchivePage page = archive.page(board, null, null, 10);
+        assertThat(page.tasks())
+            .extracting(ArchivePage.Card::id, ArchivePage.Card::title, ArchivePage.Card::status)
+            .containsExactly(tuple(b, "b", "Done"), tuple(a, "a", "Done"));
+        assertThat(page.next()).isNull();
+    }
+
+    @Test
+    void restore_puts_the_card_back_under_its_id_at_the_bottom_and_it_starts_aging_again() {
+        long a = service.create(board, "a", "Done").id();
+        service.create(board, "b", "Done");
+        movedAgo(a, Duration.ofDays(40));
+        archive.run();
+        assertThat(service.board(board)).extracting(TaskView::title).containsExactly("b");
+
+        TaskView restored = archive.restore(board, a, "Todo");
+
+        assertThat(restored).isEqualTo(new TaskView(a, "a", "Todo", restored.position()));
+        assertThat(service.board(board)).extracting(TaskView::title, TaskView::status)
+            .containsExactly(tuple("a", "Todo"), tuple("b", "Done"));
+        assertThat(archive.page(board, null, null, 10).tasks()).isEmpty();
+        assertThatThrownBy(() -> archive.restore(board, a, null)).isInstanceOf(NoSuchElementException.class);
+
+        service.move(board, a, "Done");
+        archive.run();
+        assertThat(service.board(board)).hasSize(2);
+    }
+
+    @Test
+    void restoring_a_card_already_on_the_board_clears_its_archive_row_so_it_can_be_archived_again() {
+        long a = service.create(board, "a", "Done").id();
+        service.create(board, "b", "Done");
+        long column = jdbc.queryForObject("select column_id from task where id = ?", Long.class, a);
+        // left behind by a restore that put the card back but never got to delete the row
+        Timestamp longAgo = Timestamp.from(Instant.now().minus(Duration.ofDays(40)));
+        jdbc.update("insert into task_archive (id, project_id, column_id, title, completed_at, archived_at) values (?, ?, ?, 'a', ?, ?)",
+            a, board, column, longAgo, longAgo);
+
+        TaskView restored = archive.restore(board, a, null);
+
+        assertThat(restored.id()).isEqualTo(a);
+        assertThat(archive.page(board, null, null, 10).tasks()).isEmpty();
+        movedAgo(a, Duration.ofDays(40));
+        archive.run();
+        assertThat(archive.page(board, null, null, 10).tasks()).extracting(ArchivePage.Card::id).containsExactly(a);
+    }
+
+    @Test
+    void a_restore_that_fails_keeps_the_archive_row() {
+        long a = service.create(board, "a", "Done").id();
+        service.create(board, "b", "Done");
+        movedAgo(a, Duration.ofDays(40));
+        archive.run();
+        ArchivedTask row = archived.findById(a).orElseThrow();
+
+        assertThatThrownBy(() -> service.restore(board, a, "a", "Todo", () -> {
+            archived.delete(row);
+            throw new IllegalStateException("restore failed");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(archived.findById(a)).isPresent();
+        assertThat(service.board(board)).extracting(TaskView::title).containsExactly("b");
+    }
+
+    private void movedAgo(long id, Duration ago) {
+        jdbc.update("update task set moved_at = ? where id = ?", Timestamp.from(Instant.now().minus(ago)), id);
+    }
+}
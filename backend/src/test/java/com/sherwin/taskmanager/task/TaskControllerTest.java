@@ -0,0 +1,343 @@
+package com.sherwin.taskmanager.task;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.sherwin.taskmanager.security.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class TaskControllerTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper json;
+
+    @Autowired
+    private TaskArchive archive;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private JwtService jwt;
+
+    private String bearer;
+
+    @BeforeEach
+    void login() throws Exception {
+        String body = mvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"email":"admin@example.com","password":"admin123"}
+                """))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        bearer = "Bearer " + json.readTree(body).get("token").asText();
+    }
+
+    @Test
+    void list_answers_304_until_the_board_changes() throws Exception {
+        String etag = mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(get("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isNotModified());
+
+        mvc.perform(post("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"title":"etag check","status":"Todo"}
+                """))
+            .andExpect(status().isOk());
+
+        String changed = mvc.perform(get("/api/tasks")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void stream_returns_the_same_board_as_list() throws Exception {
+        String listed = mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, bearer))
+            .andReturn().getResponse().getContentAsString();
+
+        MvcResult started = mvc.perform(get("/api/tasks/stream").header(HttpHeaders.AUTHORIZATION, bearer))
+            .andReturn();
+        String streamed = mvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+
+        assertThat(json.readTree(streamed)).isEqualTo(json.readTree(listed));
+    }
+
+    @Test
+    void column_pages_follow_the_cursor_to_the_end() throws Exception {
+        String col = "page-" + UUID.randomUUID();
+        String created = mvc.perform(post("/api/projects")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"paging\",\"columns\":[\"" + col + "\"]}"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.columns[0]").value(col))
+            .andReturn().getResponse().getContentAsString();
+        long project = json.readTree(created).get("id").asLong();
+
+        for (int i = 0; i < 5; i++) {
+            mvc.perform(post("/api/projects/{p}/tasks", project)
+                    .header(HttpHeaders.AUTHORIZATION, bearer)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\":\"card " + i + "\"}"))
+                .andExpect(status().isOk());
+        }
+
+        String first = mvc.perform(get("/api/projects/{p}/tasks/columns/{status}", project, col)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .param("limit", "3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tasks.length()").value(3))
+            .andExpect(jsonPath("$.tasks[0].title").value("card 0"))
+            .andReturn().getResponse().getContentAsString();
+        String next = json.readTree(first).get("next").asText();
+
+        mvc.perform(get("/api/projects/{p}/tasks/columns/{status}", project, col)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .param("limit", "3")
+                .param("after", next))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tasks.length()").value(2))
+            .andExpect(jsonPath("$.tasks[0].title").value("card 3"))
+            .andExpect(jsonPath("$.next").doesNotExist());
+
+        mvc.perform(get("/api/projects/{p}/tasks/columns/{status}", project, col)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .param("after", "nonsense"))
+            .andExpect(status().isBadRequest());
+
+        // the project's cards are not on the default board, and its column is unknown there
+        mvc.perform(get("/api/tasks/columns/{status}", col).header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/projects/{p}/tasks", 999_999).header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void another_users_project_is_not_found() throws Exception {
+        String created = mvc.perform(post("/api/projects")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"private\"}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        long project = json.readTree(created).get("id").asLong();
+        String other = "Bearer " + jwt.generate("other-" + UUID.randomUUID() + "@example.com", "USER");
+
+        mvc.perform(get("/api/projects/{p}/tasks", project).header(HttpHeaders.AUTHORIZATION, other))
+            .andExpect(status().isNotFound());
+        mvc.perform(post("/api/projects/{p}/tasks", project)
+                .header(HttpHeaders.AUTHORIZATION, other)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                    {"title":"not mine","status":"Todo"}
+                """))
+            .andExpect(status().isNotFound());
+        mvc.perform(get("/api/projects/{p}/tasks", project).header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(0));
+        // the default project stays the board everyone shares
+        mvc.perform(get("/api/tasks").header(HttpHeaders.AUTHORIZATION, other))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void grouped_board_comes_as_cbor_when_asked_with_the_same_cards_as_the_list() throws Exception {
+        String created = mvc.perform(post("/api/projects")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"grouped-" + UUID.randomUUID() + "\",\"columns\":[\"Todo\",\"Doing\",\"Done\"]}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        long project = json.readTree(created).get("id").asLong();
+        for (String status : new String[] {"Done", "Todo", "Done"}) {
+            mvc.perform(post("/api/projects/{p}/tasks", project)
+                    .header(HttpHeaders.AUTHORIZATION, bearer)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\":\"in " + status + "\",\"status\":\"" + status + "\"}"))
+                .andExpect(status().isOk());
+        }
+
+        MvcResult res = mvc.perform(get("/api/projects/{p}/tasks/columns", project)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .accept("application/cbor"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "application/cbor"))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn();
+        BoardColumns grouped = new CBORMapper().readValue(res.getResponse().getContentAsByteArray(), BoardColumns.class);
+
+        assertThat(grouped.columns()).extracting(BoardColumns.Column::status).containsExactly("Todo", "Doing", "Done");
+        assertThat(grouped.columns()).extracting(c -> c.tasks().size()).containsExactly(1, 0, 2);
+        String listed = mvc.perform(get("/api/projects/{p}/tasks", project).header(HttpHeaders.AUTHORIZATION, bearer))
+            .andReturn().getResponse().getContentAsString();
+        assertThat(json.readTree(listed).findValuesAsText("title"))
+            .containsExactly("in Todo", "in Done", "in Done");
+    }
+
+    @Test
+    void an_ndjson_row_longer_than_the_cap_is_a_bad_request() throws Exception {
+        String created = mvc.perform(post("/api/projects")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"import-" + UUID.randomUUID() + "\"}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        long project = json.readTree(created).get("id").asLong();
+        String row = "{\"title\":\"" + "x".repeat(TaskTransfer.MAX_LINE) + "\"}";
+
+        mvc.perform(post("/api/projects/{p}/tasks/import", project)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(TaskTransfer.Format.NDJSON_VALUE)
+                .content(row))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void a_csv_record_longer_than_the_cap_is_a_bad_request() throws Exception {
+        String created = mvc.perform(post("/api/projects")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"import-" + UUID.randomUUID() + "\"}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        long project = json.readTree(created).get("id").asLong();
+        // every field is empty, so only the record cap stops it
+        String record = "title,status\n" + ",".repeat(Csv.MAX_RECORD + 1);
+
+        mvc.perform(post("/api/projects/{p}/tasks/import", project)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType("text/csv")
+                .content(record))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void csv_import_round_trips_through_ndjson_export() throws Exception {
+        String created = mvc.perform(post("/api/projects")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"import-" + UUID.randomUUID() + "\"}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        long project = json.readTree(created).get("id").asLong();
+
+        mvc.perform(post("/api/projects/{p}/tasks/import", project)
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType("text/csv")
+                .content("""
+                    title,status
+                    first,Done
+                    "quoted, with ""comma""\",
+                    ,Todo
+                    last,Nowhere
+                    second,Done
+                    """))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.imported").value(3))
+            .andExpect(jsonPath("$.failed").value(2))
+            .andExpect(jsonPath("$.errors[0]").value("row 3: title is required"))
+            .andExpect(jsonPath("$.errors[1]").value("row 4: Unknown column"));
+
+        MvcResult started = mvc.perform(get("/api/projects/{p}/tasks/export", project)
+                .header(HttpHeaders.AUTHORIZATION, bearer))
+            .andReturn();
+        String[] lines = mvc.perform(asyncDispatch(started))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertThat(lines).hasSize(3);
+        assertThat(json.readTree(lines[0]).get("title").asText()).isEqualTo("quoted, with \"comma\"");
+        assertThat(json.readTree(lines[0]).get("status").asText()).isEqualTo("Todo");
+        assertThat(json.readTree(lines[1]).get("title").asText()).isEqualTo("first");
+        assertThat(json.readTree(lines[2]).get("title").asText()).isEqualTo("second");
+    }
+
+    @Test
+    void archive_is_read_a_page_at_a_time_and_a_card_restores_into_its_old_column() throws Exception {
+        String created = mvc.perform(post("/api/projects")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"archived-" + UUID.randomUUID() + "\"}"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        long project = json.readTree(created).get("id").asLong();
+        long[] ids = new long[2];
+        for (int i = 0; i < 2; i++) {
+            String card = mvc.perform(post("/api/projects/{p}/tasks", project)
+                    .header(HttpHeaders.AUTHORIZATION, bearer)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"title\":\"done " + i + "\",\"status\":\"Done\"}"))
+                .andReturn().getResponse().getContentAsString();
+            ids[i] = json.readTree(card).get("id").asLong();
+            // done 0 finished 50 days ago, done 1 40 days ago: both past the default P30D
+            jdbc.update("update task set moved_at = ? where id = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(50 - 10L * i))), ids[i]);
+        }
+        archive.run();
+
+        String first = mvc.perform(get("/api/projects/{p}/tasks/archive?limit=1", project)
+                .header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tasks[0].id").value(ids[1]))
+            .andExpect(jsonPath("$.tasks[0].status").value("Done"))
+            .andReturn().getResponse().getContentAsString();
+        String next = json.readTree(first).get("next").asText();
+        mvc.perform(get("/api/projects/{p}/tasks/archive?limit=1&after={after}", project, next)
+                .header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.tasks.length()").value(1))
+            .andExpect(jsonPath("$.tasks[0].id").value(ids[0]));
+        mvc.perform(get("/api/projects/{p}/tasks/archive?after=yesterday", project)
+                .header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isBadRequest());
+
+        mvc.perform(post("/api/projects/{p}/tasks/archive/{id}/restore", project, ids[0])
+                .header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(ids[0]))
+            .andExpect(jsonPath("$.status").value("Done"));
+        mvc.perform(post("/api/projects/{p}/tasks/archive/{id}/restore", project, ids[0])
+                .header(HttpHeaders.AUTHORIZATION, bearer))
+            .andExpect(status().isNotFound());
+    }
+}
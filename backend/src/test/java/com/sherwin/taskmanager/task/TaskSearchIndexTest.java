@@ -0,0 +1,72 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.TestProjects;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class TaskSearchIndexTest {
+
+    @Autowired
+    private TaskService service;
+
+    @Autowired
+    private TaskSearchIndex index;
+
+    @Autowired
+    private TestProjects projects;
+
+    private long board;
+
+    @BeforeEach
+    void newBoard() {
+        board = projects.create("search");
+    }
+
+    @Test
+    void every_word_matches_as_a_prefix_and_whole_words_rank_first() {
+        long login = service.create(board, "Fix login redirect", "Todo").id();
+        long logging = service.create(board, "Structured logging for the login service", "Todo").id();
+        service.create(board, "Dark mode", "Done");
+
+        assertThat(ids("log")).containsExactly(login, logging);
+        assertThat(ids("LOGIN redir")).containsExactly(login);
+        assertThat(ids("logging")).containsExactly(logging);
+        assertThat(ids("nothing here")).isEmpty();
+    }
+
+    @Test
+    void follows_retitles_moves_and_deletes() {
+        long id = service.create(board, "Draft release notes", "Todo").id();
+
+        service.update(board, id, "Publish release notes", "Done");
+        assertThat(ids("draft")).isEmpty();
+        assertThat(index.search(board, "publish", 10))
+            .singleElement()
+            .satisfies(h -> assertThat(h.status()).isEqualTo("Done"));
+
+        service.delete(board, id);
+        assertThat(ids("release")).isEmpty();
+    }
+
+    @Test
+    void is_scoped_to_the_project_and_survives_a_rebuild() {
+        long mine = service.create(board, "Quarterly roadmap", "Todo").id();
+        long other = projects.create("search");
+        service.create(other, "Quarterly roadmap", "Todo");
+
+        index.rebuild();
+
+        assertThat(ids("quarter road")).containsExactly(mine);
+    }
+
+    private List<Long> ids(String q) {
+        return index.search(board, q, 10).stream().map(TaskSearchIndex.Hit::id).toList();
+    }
+}
@@ -0,0 +1,201 @@
+package com.sherwin.taskmanager.task;
+
+import com.sherwin.taskmanager.TestProjects;
+import com.sherwin.taskmanager.board.Boards;
+import com.sherwin.taskmanager.task.dto.BatchOperation;
+import com.sherwin.taskmanager.task.dto.BatchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class TaskServiceTest {
+
+    @Autowired
+    private TaskService service;
+
+    @Autowired
+    private TaskRepository tasks;
+
+    @Autowired
+    private ColumnRebalancer rebalancer;
+
+    @Autowired
+    private TestProjects projects;
+
+    @Autowired
+    private Boards boards;
+
+    private long board;
+    private int columns;
+
+    @BeforeEach
+    void newBoard() {
+        // a fresh project per test, with more columns than any test uses
+        board = projects.create("test", "c0", "c1", "c2");
+        columns = 0;
+    }
+
+    @Test
+    void reorder_within_column_keeps_list_order() {
+        String col = column();
+        List<Long> ids = seed(col, 5);
+
+        service.reorder(board, ids.get(4), col, 1);   // e -> between a and b
+        service.reorder(board, ids.get(0), col, 4);   // a -> bottom
+
+        assertThat(order(col)).containsExactly(ids.get(4), ids.get(1), ids.get(2), ids.get(3), ids.get(0));
+    }
+
+    @Test
+    void reorder_across_columns_inserts_at_index() {
+        String from = column();
+        String to = column();
+        List<Long> a = seed(from, 2);
+        List<Long> b = seed(to, 3);
+
+        service.reorder(board, a.get(0), to, 2);
+        service.reorder(board, a.get(1), to, 0);
+
+        assertThat(order(from)).isEmpty();
+        assertThat(order(to)).containsExactly(a.get(1), b.get(0), b.get(1), a.get(0), b.get(2));
+    }
+
+    @Test
+    void reorder_past_the_end_drops_at_the_bottom() {
+        String col = column();
+        List<Long> ids = seed(col, 3);
+
+        service.reorder(board, ids.get(0), col, 99);
+
+        assertThat(order(col)).containsExactly(ids.get(1), ids.get(2), ids.get(0));
+    }
+
+    @Test
+    void repeated_drops_into_same_gap_rebalance_inline() {
+        String col = column();
+        List<Long> ids = seed(col, 3);
+
+        // always drop the current bottom card at index 1: halves the same gap every time
+        for (int i = 0; i < 40; i++) {
+            List<Long> now = order(col);
+            service.reorder(board, now.get(now.size() - 1), col, 1);
+        }
+
+        assertThat(order(col)).hasSize(3).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(rebalancer.rebalance(new ColumnKey(board, boards.columnId(board, col)))).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void delete_writes_only_the_deleted_row() {
+        String col = column();
+        List<Long> ids = seed(col, 3);
+        List<Long> before = positions(col);
+
+        service.delete(board, ids.get(0));
+
+        assertThat(order(col)).containsExactly(ids.get(1), ids.get(2));
+        assertThat(positions(col)).containsExactlyElementsOf(before.subList(1, 3));
+    }
+
+    @Test
+    void concurrent_reorders_in_one_column_keep_positions_unique() throws Exception {
+        String col = column();
+        List<Long> ids = seed(col, 10);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> runs = new ArrayList<>();
+            for (int w = 0; w < 4; w++) {
+                int seed = w;
+                runs.add(pool.submit(() -> {
+                    Random rnd = new Random(seed);
+                    for (int i = 0; i < 25; i++) {
+                        service.reorder(board, ids.get(rnd.nextInt(ids.size())), col, rnd.nextInt(ids.size()));
+                    }
+                }));
+            }
+            for (Future<?> f : runs) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(order(col)).containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(positions(col)).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void batch_applies_operations_in_order_and_reports_each() {
+        String col = column();
+        String done = column();
+        List<Long> ids = seed(col, 2);
+
+        List<BatchResult> results = service.apply(board, List.of(
+            new BatchOperation("create", null, "c", col, null),
+            new BatchOperation("move", ids.get(0), null, done, null),
+            new BatchOperation("retitle", ids.get(1), "renamed", null, null),
+            new BatchOperation("move", ids.get(1), null, col, 5),
+            new BatchOperation("delete", 999_999_999L, null, null, null),
+            new BatchOperation("explode", ids.get(1), null, null, null)
+        ));
+
+        assertThat(results).extracting(BatchResult::ok).containsExactly(true, true, true, true, false, false);
+        Long created = results.get(0).id();
+        assertThat(order(col)).containsExactly(created, ids.get(1));
+        assertThat(order(done)).containsExactly(ids.get(0));
+        assertThat(tasks.findById(ids.get(1))).get().extracting(Task::getTitle).isEqualTo("renamed");
+    }
+
+    @Test
+    void tasks_of_another_project_are_not_found() {
+        String col = column();
+        List<Long> ids = seed(col, 2);
+        long other = projects.create("test", "c0", "c1", "c2");
+
+        assertThatThrownBy(() -> service.reorder(other, ids.get(0), col, 0))
+            .isInstanceOf(NoSuchElementException.class);
+        assertThat(service.apply(other, List.of(new BatchOperation("delete", ids.get(1), null, null, null))))
+            .extracting(BatchResult::ok).containsExactly(false);
+        assertThat(order(col)).containsExactlyElementsOf(ids);
+    }
+
+    @Test
+    void unknown_column_is_rejected() {
+        assertThatThrownBy(() -> service.create(board, "x", "Nope"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private String column() {
+        return "c" + columns++;
+    }
+
+    private List<Long> seed(String col, int n) {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < n; i++) ids.add(service.create(board, "card " + i, col).id());
+        return ids;
+    }
+
+    private List<Task> cards(String col) {
+        return tasks.findAllByColumnIdOrderByPositionAscIdAsc(boards.columnId(board, col));
+    }
+
+    private List<Long> order(String col) {
+        return cards(col).stream().map(Task::getId).toList();
+    }
+
+    private List<Long> positions(String col) {
+        return cards(col).stream().map(Task::getPosition).toList();
+    }
+}
@@ -0,0 +1,52 @@
+package com.sherwin.taskmanager.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class UserCacheTest {
+
+    @Autowired
+    private UserCache cache;
+
+    @Autowired
+    private UserRepository users;
+
+    @Test
+    void second_lookup_is_a_hit_and_updates_evict() {
+        User u = new User();
+        u.setEmail("cache-" + UUID.randomUUID() + "@example.com");
+        u.setName("Cache");
+        u.setPasswordHash("x");
+        u = users.save(u);
+
+        long hits = cache.stats().hitCount();
+        assertThat(cache.findByEmail(u.getEmail())).map(CachedUser::role).contains(User.Role.USER);
+        assertThat(cache.findByEmail(u.getEmail())).isPresent();
+        assertThat(cache.stats().hitCount()).isEqualTo(hits + 1);
+
+        u.setRole(User.Role.ADMIN);
+        users.save(u);
+
+        assertThat(cache.findByEmail(u.getEmail())).map(CachedUser::role).contains(User.Role.ADMIN);
+    }
+
+    @Test
+    void unknown_emails_are_not_cached() {
+        String email = "nobody-" + UUID.randomUUID() + "@example.com";
+        assertThat(cache.findByEmail(email)).isEmpty();
+
+        User u = new User();
+        u.setEmail(email);
+        u.setName("Late");
+        u.setPasswordHash("x");
+        users.save(u);
+
+        assertThat(cache.findByEmail(email)).isPresent();
+    }
+}